@@ -0,0 +1,366 @@
+package com.duyanhggg.areaminer.mining;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * FakeWorld - In-memory World and Block implementation for headless benchmarks
+ * Backed by one byte per block over a fixed region; everything outside it is air.
+ * Built with dynamic proxies, so only the handful of methods the mining code calls
+ * are implemented and the rest return defaults.
+ */
+public final class FakeWorld {
+
+    private static final Material[] PALETTE = {
+        Material.AIR, Material.STONE, Material.DEEPSLATE, Material.DIRT,
+        Material.COAL_ORE, Material.IRON_ORE, Material.DIAMOND_ORE, Material.GRAVEL
+    };
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final byte[] blocks;
+    private final byte[] pristine;
+    private final Map<Long, Integer> columnPalettes;
+    private final UUID uid;
+    private final World world;
+    private boolean readOnly;
+
+    static {
+        installServer();
+    }
+
+    /**
+     * Generate a stone region with scattered ores and an air layer on top
+     */
+    public FakeWorld(int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ, long seed) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.blocks = new byte[sizeX * sizeY * sizeZ];
+        this.uid = new UUID(seed, seed * 31);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int surface = sizeY * 3 / 4;
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    byte id;
+                    if (y >= surface) {
+                        id = 0;
+                    } else if (random.nextInt(100) < 3) {
+                        id = (byte) (4 + random.nextInt(3));
+                    } else if (y == surface - 1) {
+                        id = 3;
+                    } else {
+                        id = (byte) (y < sizeY / 4 ? 2 : random.nextInt(20) == 0 ? 7 : 1);
+                    }
+                    blocks[index(x, y, z)] = id;
+                }
+            }
+        }
+        this.pristine = blocks.clone();
+        this.columnPalettes = new HashMap<>();
+        this.world = createWorld();
+    }
+
+    /**
+     * Get the Bukkit view of this world
+     */
+    public World world() {
+        return world;
+    }
+
+    /**
+     * Ignore block writes, so the same blocks can be mined on every benchmark invocation
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Undo all writes made since the world was generated
+     */
+    public void reset() {
+        System.arraycopy(pristine, 0, blocks, 0, blocks.length);
+        columnPalettes.clear();
+    }
+
+    /**
+     * Turn every ore back into stone, for a region no ore filter can match
+     */
+    public void removeOres() {
+        for (int i = 0; i < blocks.length; i++) {
+            if (pristine[i] >= 4 && pristine[i] <= 6) {
+                pristine[i] = 1;
+            }
+        }
+        reset();
+    }
+
+    public Location location(int x, int y, int z) {
+        return new Location(world, x, y, z);
+    }
+
+    Material getType(int x, int y, int z) {
+        int lx = x - originX;
+        int ly = y - originY;
+        int lz = z - originZ;
+        if (lx < 0 || ly < 0 || lz < 0 || lx >= sizeX || ly >= sizeY || lz >= sizeZ) {
+            return Material.AIR;
+        }
+        return PALETTE[blocks[index(lx, ly, lz)]];
+    }
+
+    void setType(int x, int y, int z, Material material) {
+        int lx = x - originX;
+        int ly = y - originY;
+        int lz = z - originZ;
+        if (readOnly || lx < 0 || ly < 0 || lz < 0 || lx >= sizeX || ly >= sizeY || lz >= sizeZ) {
+            return;
+        }
+        for (byte id = 0; id < PALETTE.length; id++) {
+            if (PALETTE[id] == material) {
+                blocks[index(lx, ly, lz)] = id;
+                columnPalettes.remove(columnKey(x >> 4, z >> 4));
+                return;
+            }
+        }
+    }
+
+    private int index(int x, int y, int z) {
+        return (y * sizeZ + z) * sizeX + x;
+    }
+
+    /**
+     * Check if a chunk column holds a material, like a palette lookup on a real chunk
+     */
+    boolean columnContains(int chunkX, int chunkZ, Material material) {
+        int palette = columnPalettes.computeIfAbsent(columnKey(chunkX, chunkZ), key -> columnPalette(chunkX, chunkZ));
+        for (int id = 0; id < PALETTE.length; id++) {
+            if (PALETTE[id] == material) {
+                return (palette & 1 << id) != 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bits of the palette ids present in a chunk column; columns reaching outside the region hold air
+     */
+    private int columnPalette(int chunkX, int chunkZ) {
+        int palette = 0;
+        for (int x = chunkX << 4; x < (chunkX << 4) + 16; x++) {
+            for (int z = chunkZ << 4; z < (chunkZ << 4) + 16; z++) {
+                int lx = x - originX;
+                int lz = z - originZ;
+                if (lx < 0 || lz < 0 || lx >= sizeX || lz >= sizeZ) {
+                    palette |= 1;
+                    continue;
+                }
+                for (int ly = 0; ly < sizeY; ly++) {
+                    palette |= 1 << blocks[index(lx, ly, lz)];
+                }
+            }
+        }
+        return palette;
+    }
+
+    private static long columnKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private World createWorld() {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getType" -> args.length == 3 && args[0] instanceof Integer
+                ? getType((Integer) args[0], (Integer) args[1], (Integer) args[2])
+                : getType(((Location) args[0]).getBlockX(), ((Location) args[0]).getBlockY(), ((Location) args[0]).getBlockZ());
+            case "getBlockAt" -> args.length == 3
+                ? createBlock((Integer) args[0], (Integer) args[1], (Integer) args[2])
+                : createBlock(((Location) args[0]).getBlockX(), ((Location) args[0]).getBlockY(), ((Location) args[0]).getBlockZ());
+            case "getChunkAt" -> args.length == 2 && args[0] instanceof Integer
+                ? createChunk((Integer) args[0], (Integer) args[1]) : null;
+            case "getUID" -> uid;
+            case "getName" -> "fake-" + uid;
+            case "getMinHeight" -> originY;
+            case "getMaxHeight" -> originY + sizeY;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "FakeWorld{" + uid + "}";
+            default -> defaultValue(method.getReturnType());
+        };
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class}, handler);
+    }
+
+    private Block createBlock(int x, int y, int z) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getType" -> getType(x, y, z);
+            case "setType" -> {
+                setType(x, y, z, (Material) args[0]);
+                yield null;
+            }
+            case "setBlockData" -> {
+                setType(x, y, z, ((BlockData) args[0]).getMaterial());
+                yield null;
+            }
+            case "getX" -> x;
+            case "getY" -> y;
+            case "getZ" -> z;
+            case "getWorld" -> world;
+            case "getLocation" -> args == null || args.length == 0 ? new Location(world, x, y, z) : null;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "FakeBlock{" + x + "," + y + "," + z + "}";
+            default -> defaultValue(method.getReturnType());
+        };
+        return (Block) Proxy.newProxyInstance(Block.class.getClassLoader(), new Class<?>[]{Block.class}, handler);
+    }
+
+    private Chunk createChunk(int chunkX, int chunkZ) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "contains" -> args[0] instanceof BlockData data && columnContains(chunkX, chunkZ, data.getMaterial());
+            case "getX" -> chunkX;
+            case "getZ" -> chunkZ;
+            case "getWorld" -> world;
+            case "isLoaded" -> true;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "FakeChunk{" + chunkX + "," + chunkZ + "}";
+            default -> defaultValue(method.getReturnType());
+        };
+        return (Chunk) Proxy.newProxyInstance(Chunk.class.getClassLoader(), new Class<?>[]{Chunk.class}, handler);
+    }
+
+    /**
+     * Install a minimal Server so static Bukkit lookups (logger, tags, block data) work offline
+     * The vanilla registries are bootstrapped too, since palette probes enumerate block states.
+     */
+    private static void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        Logger logger = Logger.getLogger("FakeServer");
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getLogger" -> logger;
+            case "getName", "getVersion", "getBukkitVersion" -> "benchmark";
+            case "getTag" -> tag((NamespacedKey) args[1]);
+            case "createBlockData" -> {
+                if (args.length > 0 && args[0] instanceof Material material) {
+                    yield blockData(material);
+                }
+                // A state string; the fake world has one state per material
+                if (args.length > 0 && args[0] instanceof String state) {
+                    int properties = state.indexOf('[');
+                    Material material = Material.matchMaterial(properties < 0 ? state : state.substring(0, properties));
+                    yield material == null ? null : blockData(material);
+                }
+                yield null;
+            }
+            case "getWorlds", "getOnlinePlayers" -> Collections.emptyList();
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "FakeServer";
+            default -> defaultValue(method.getReturnType());
+        };
+        Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class}, handler));
+    }
+
+    private static BlockData blockData(Material material) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getMaterial" -> material;
+            case "getAsString" -> material.getKey().toString();
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> material.hashCode();
+            case "toString" -> "FakeBlockData{" + material + "}";
+            default -> defaultValue(method.getReturnType());
+        };
+        return (BlockData) Proxy.newProxyInstance(BlockData.class.getClassLoader(), new Class<?>[]{BlockData.class}, handler);
+    }
+
+    /**
+     * Ore tags like coal_ores hold every material named after their ore; all other tags are empty
+     */
+    @SuppressWarnings("unchecked")
+    private static Tag<Material> tag(NamespacedKey key) {
+        Set<Material> values = EnumSet.noneOf(Material.class);
+        String name = key.getKey();
+        if (name.endsWith("_ores")) {
+            String ore = name.substring(0, name.length() - "_ores".length()) + "_ore";
+            for (Material material : Material.values()) {
+                String materialKey = material.name().toLowerCase(Locale.ROOT);
+                if (!material.isLegacy() && (materialKey.equals(ore) || materialKey.endsWith("_" + ore))) {
+                    values.add(material);
+                }
+            }
+        }
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getValues" -> values;
+            case "isTagged" -> values.contains(args[0]);
+            case "getKey" -> key;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "FakeTag";
+            default -> defaultValue(method.getReturnType());
+        };
+        return (Tag<Material>) Proxy.newProxyInstance(Tag.class.getClassLoader(), new Class<?>[]{Tag.class}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for MiningArea geometry and lookups across many areas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MiningAreaBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({"16", "256"})
+    private int areaCount;
+
+    private FakeWorld fakeWorld;
+    private List<MiningArea> areas;
+    private AreaIndex index;
+    private Location[] probes;
+    private MiningArea blockArea;
+    private MaterialFilter oreFilter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fakeWorld = new FakeWorld(0, -64, 0, 128, 192, 128, 7L);
+        fakeWorld.setReadOnly(true);
+        SplittableRandom random = new SplittableRandom(7L);
+        UUID owner = new UUID(1L, 1L);
+
+        areas = new ArrayList<>(areaCount);
+        index = new AreaIndex();
+        for (int i = 0; i < areaCount; i++) {
+            int x = random.nextInt(-2048, 2048);
+            int y = random.nextInt(-64, 256);
+            int z = random.nextInt(-2048, 2048);
+            MiningArea area = new MiningArea("area-" + i, "Area " + i, fakeWorld.world(),
+                fakeWorld.location(x, y, z),
+                fakeWorld.location(x + random.nextInt(1, 96), y + random.nextInt(1, 64), z + random.nextInt(1, 96)),
+                owner);
+            areas.add(area);
+            index.add(area);
+        }
+
+        probes = new Location[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = fakeWorld.location(random.nextInt(-2048, 2048), random.nextInt(-64, 320), random.nextInt(-2048, 2048));
+        }
+
+        blockArea = new MiningArea("blocks", "Blocks", fakeWorld.world(),
+            fakeWorld.location(0, -64, 0), fakeWorld.location(31, -33, 31), owner);
+        oreFilter = MaterialFilter.of(EnumSet.of(Material.COAL_ORE, Material.IRON_ORE, Material.DIAMOND_ORE));
+    }
+
+    @Benchmark
+    public int isLocationWithinLinearScan() {
+        int hits = 0;
+        for (Location probe : probes) {
+            for (MiningArea area : areas) {
+                if (area.isLocationWithin(probe)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int containsLinearScan() {
+        int hits = 0;
+        for (Location probe : probes) {
+            int x = probe.getBlockX();
+            int y = probe.getBlockY();
+            int z = probe.getBlockZ();
+            for (MiningArea area : areas) {
+                if (area.contains(x, y, z)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int isLocationWithinIndexed() {
+        int hits = 0;
+        for (Location probe : probes) {
+            hits += index.findAt(probe).size();
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int overlapsLinearScan() {
+        int overlapping = 0;
+        for (MiningArea area : areas) {
+            for (MiningArea other : areas) {
+                if (area != other && area.overlaps(other)) {
+                    overlapping++;
+                }
+            }
+        }
+        return overlapping;
+    }
+
+    @Benchmark
+    public int overlapsIndexed() {
+        int overlapping = 0;
+        for (MiningArea area : areas) {
+            overlapping += index.findOverlapping(area).size();
+        }
+        return overlapping;
+    }
+
+    @Benchmark
+    public void getAllBlocks(Blackhole blackhole) {
+        blackhole.consume(blockArea.getAllBlocks());
+    }
+
+    @Benchmark
+    public boolean forEachBlock(Blackhole blackhole) {
+        return blockArea.forEachBlock((x, y, z) -> {
+            blackhole.consume(x ^ y ^ z);
+            return true;
+        });
+    }
+
+    @Benchmark
+    public long countMatching() {
+        return blockArea.countMatching(oreFilter);
+    }
+}
@@ -0,0 +1,143 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the MiningController hot paths: scanning, filtering and breaking
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MiningControllerBenchmark {
+
+    @Param({"32", "64"})
+    private int size;
+
+    private FakeWorld fakeWorld;
+    private World world;
+    private MiningController controller;
+    private Location corner1;
+    private Location corner2;
+    private Location barrenCorner1;
+    private Location barrenCorner2;
+    private Set<Material> ores;
+    private MaterialFilter oreFilter;
+    private MaterialFilter registeredOreFilter;
+    private long[] targets;
+    private MiningPlan plan;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fakeWorld = new FakeWorld(0, -64, 0, 128, 192, 128, 42L);
+        fakeWorld.setReadOnly(true);
+        world = fakeWorld.world();
+        controller = new MiningController();
+
+        corner1 = fakeWorld.location(0, -64, 0);
+        corner2 = fakeWorld.location(size - 1, -64 + size - 1, size - 1);
+        FakeWorld barren = new FakeWorld(0, -64, 0, 128, 192, 128, 43L);
+        barren.removeOres();
+        barren.setReadOnly(true);
+        barrenCorner1 = barren.location(0, -64, 0);
+        barrenCorner2 = barren.location(size - 1, -64 + size - 1, size - 1);
+        ores = EnumSet.of(Material.COAL_ORE, Material.IRON_ORE, Material.DIAMOND_ORE);
+        oreFilter = MaterialFilter.of(ores);
+        // The registered #ores filter, redstone ores and their lit states included
+        registeredOreFilter = controller.getFilter(1);
+
+        BlockCursor cursor = BlockCursor.between(corner1, corner2);
+        long[] found = new long[size * size * size];
+        int count = 0;
+        while (cursor.hasNext()) {
+            long packed = cursor.next();
+            if (oreFilter.matches(world.getType(BlockCursor.unpackX(packed), BlockCursor.unpackY(packed),
+                    BlockCursor.unpackZ(packed)))) {
+                found[count++] = packed;
+            }
+        }
+        targets = Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Mining unmarks the plan as it goes, so every invocation starts from a fresh one
+     */
+    @Setup(Level.Invocation)
+    public void resetPlan() {
+        plan = new MiningPlan();
+        for (long packed : targets) {
+            plan.mark(BlockCursor.unpackX(packed), BlockCursor.unpackY(packed), BlockCursor.unpackZ(packed));
+        }
+    }
+
+    @Benchmark
+    public int buildBlockList() {
+        return controller.buildBlockList(corner1, corner2, oreFilter, Integer.MAX_VALUE).size();
+    }
+
+    @Benchmark
+    public int buildBlockListPaletteMiss() {
+        // No ore at all in the barren world, so every column is ruled out by its palette
+        return controller.buildBlockList(barrenCorner1, barrenCorner2, registeredOreFilter, Integer.MAX_VALUE).size();
+    }
+
+    @Benchmark
+    public int isMineable() {
+        int matches = 0;
+        for (int y = -64; y < -64 + size; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    if (controller.isMineable(world, x, y, z, oreFilter)) {
+                        matches++;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public void isMineableSetContains(Blackhole blackhole) {
+        // Baseline: the Set<Material> check the filter replaced
+        for (int y = -64; y < -64 + size; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    Material type = world.getType(x, y, z);
+                    blackhole.consume(type != Material.AIR && ores.contains(type));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int processMiningBatchesBulk() {
+        return processMiningBatches(MiningMode.BULK);
+    }
+
+    @Benchmark
+    public int processMiningBatchesVanilla() {
+        return processMiningBatches(MiningMode.VANILLA_ACCURATE);
+    }
+
+    private int processMiningBatches(MiningMode mode) {
+        MiningController.MiningSession session = new MiningController.MiningSession(
+            UUID.randomUUID(), "benchmark", corner1, corner2, System.currentTimeMillis());
+        session.setCursor(BlockCursor.between(corner1, corner2));
+        session.setFilter(oreFilter);
+        session.setMode(mode);
+        session.setPlan(plan);
+        return controller.processMiningBatches(session, Long.MAX_VALUE, Integer.MAX_VALUE);
+    }
+}
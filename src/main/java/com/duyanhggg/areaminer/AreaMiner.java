@@ -1,6 +1,9 @@
 package com.duyanhggg.areaminer;
 
+import com.duyanhggg.areaminer.command.MetricsCommand;
+import com.duyanhggg.areaminer.command.UndoCommand;
 import com.duyanhggg.areaminer.config.ConfigManager;
+import com.duyanhggg.areaminer.metrics.MetricsEndpoint;
 import com.duyanhggg.areaminer.mining.MiningController;
 import com.duyanhggg.areaminer.network.NetworkHandler;
 import net.fabricmc.api.ModInitializer;
@@ -24,6 +27,11 @@ public class AreaMiner implements ModInitializer {
         // Initialize mining controller
         MiningController.initialize();
         
+        // Register commands and the optional local metrics endpoint
+        MetricsCommand.register();
+        UndoCommand.register();
+        MetricsEndpoint.startIfConfigured();
+        
         LOGGER.info("Area Miner mod initialized successfully");
     }
 }
@@ -0,0 +1,40 @@
+package com.duyanhggg.areaminer.command;
+
+import com.duyanhggg.areaminer.metrics.MetricsExporter;
+import com.duyanhggg.areaminer.mining.MiningController;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+/**
+ * MetricsCommand - {@code /areaminer metrics [json]} for operators
+ * Prints the same text or JSON the local metrics endpoint serves
+ */
+public class MetricsCommand {
+    
+    public static void register() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) ->
+            dispatcher.register(CommandManager.literal("areaminer")
+                .then(CommandManager.literal("metrics")
+                    .requires(source -> source.hasPermissionLevel(2))
+                    .executes(context -> print(context, false))
+                    .then(CommandManager.literal("json")
+                        .executes(context -> print(context, true))))));
+    }
+    
+    private static int print(CommandContext<ServerCommandSource> context, boolean json) {
+        MiningController controller;
+        try {
+            controller = MiningController.getInstance();
+        } catch (IllegalStateException e) {
+            context.getSource().sendError(Text.literal("Area Miner is not initialized"));
+            return 0;
+        }
+        
+        String output = json ? MetricsExporter.toJson(controller) : MetricsExporter.toText(controller);
+        context.getSource().sendFeedback(() -> Text.literal(output.stripTrailing()), false);
+        return 1;
+    }
+}
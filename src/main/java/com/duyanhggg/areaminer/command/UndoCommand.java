@@ -0,0 +1,59 @@
+package com.duyanhggg.areaminer.command;
+
+import com.duyanhggg.areaminer.mining.MiningController;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * UndoCommand - {@code /areaminer undo} and {@code /areaminer redo} for the player's own mining jobs
+ */
+public class UndoCommand {
+    
+    public static void register() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) ->
+            dispatcher.register(CommandManager.literal("areaminer")
+                .then(CommandManager.literal("undo")
+                    .requires(source -> source.hasPermissionLevel(2))
+                    .executes(context -> restore(context, true)))
+                .then(CommandManager.literal("redo")
+                    .requires(source -> source.hasPermissionLevel(2))
+                    .executes(context -> restore(context, false)))));
+    }
+    
+    private static int restore(CommandContext<ServerCommandSource> context, boolean undo) {
+        ServerPlayerEntity player = context.getSource().getPlayer();
+        Player miner = player == null ? null : Bukkit.getPlayer(player.getUuid());
+        if (miner == null) {
+            context.getSource().sendError(Text.literal("Only players can undo mining"));
+            return 0;
+        }
+        
+        boolean started;
+        try {
+            MiningController controller = MiningController.getInstance();
+            started = undo ? controller.undo(miner) : controller.redo(miner);
+        } catch (IllegalStateException e) {
+            context.getSource().sendError(Text.literal("Area Miner is not initialized"));
+            return 0;
+        }
+        
+        if (!started && undo && MiningController.getInstance().isUndoBlockedByDrops(miner.getUniqueId())) {
+            context.getSource().sendError(Text.literal("The last mining job gave out its drops, so it cannot be undone"));
+            return 0;
+        }
+        if (!started) {
+            context.getSource().sendError(Text.literal(undo
+                ? "Nothing to undo, or a mining job or restore is still running"
+                : "Nothing to redo, or a mining job or restore is still running"));
+            return 0;
+        }
+        context.getSource().sendFeedback(() -> Text.literal(undo ? "Undoing last mining job" : "Redoing last mining job"), false);
+        return 1;
+    }
+}
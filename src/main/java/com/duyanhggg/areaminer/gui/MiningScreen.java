@@ -1,17 +1,27 @@
 package com.duyanhggg.areaminer.gui;
 
+import com.duyanhggg.areaminer.network.ClientProgressTracker;
+import com.duyanhggg.areaminer.network.NetworkHandler;
+import com.duyanhggg.areaminer.renderer.AreaRenderer;
+import com.duyanhggg.areaminer.renderer.RemainingOverlay;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
 import net.minecraft.client.gui.GuiComponent;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.client.renderer.GameRenderer;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import org.lwjgl.glfw.GLFW;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalInt;
+import java.util.UUID;
+
 /**
  * MiningScreen - Main GUI screen for the Area Miner mod
  * Displays mining progress, statistics, and controls
@@ -21,6 +31,9 @@ public class MiningScreen extends Screen {
     private static final int SCREEN_WIDTH = 256;
     private static final int SCREEN_HEIGHT = 220;
     private static final ResourceLocation TEXTURE = new ResourceLocation("areaminer", "textures/gui/mining_screen.png");
+    /** Edge of the cube selected around the player when the screen is opened without a job */
+    private static final int RANGE = 64;
+    private static final int ESTIMATE_MATERIALS_SHOWN = 3;
     
     // Screen positioning
     private int leftPos;
@@ -33,6 +46,14 @@ public class MiningScreen extends Screen {
     private long totalBlocks = 1000;
     private boolean isMining = false;
     private float miningSpeed = 1.0f;
+    private int etaSeconds = -1;
+    private UUID sessionId;
+    
+    // The selected job, and its dry run shown before Start
+    private NetworkHandler.StartMiningBatchPayload job;
+    private int estimateRequestId = 0;
+    private NetworkHandler.MiningEstimatePayload estimate;
+    private boolean estimatePending = false;
     
     // UI Components
     private MiningButton startButton;
@@ -44,7 +65,16 @@ public class MiningScreen extends Screen {
     private long elapsedTime = 0;
     
     public MiningScreen() {
+        this(null);
+    }
+    
+    /**
+     * @param job the selected area; Start mines exactly this and the estimate is made for it,
+     *            or null to select the range around the player when the screen opens
+     */
+    public MiningScreen(NetworkHandler.StartMiningBatchPayload job) {
         super(Component.literal("Area Miner - Mining Screen"));
+        this.job = job;
     }
     
     @Override
@@ -53,6 +83,11 @@ public class MiningScreen extends Screen {
         this.leftPos = (this.width - SCREEN_WIDTH) / 2;
         this.topPos = (this.height - SCREEN_HEIGHT) / 2;
         
+        // Without a selection, the job is the range around the player; estimate and Start both use it
+        if (this.job == null && !isMining) {
+            this.job = areaAroundPlayer();
+        }
+        
         // Initialize buttons
         this.startButton = new MiningButton(
             this.leftPos + 20,
@@ -62,6 +97,7 @@ public class MiningScreen extends Screen {
             Component.literal("Start"),
             button -> onStartMining()
         );
+        this.startButton.active = this.job != null;
         this.addRenderableWidget(this.startButton);
         
         this.stopButton = new MiningButton(
@@ -88,6 +124,89 @@ public class MiningScreen extends Screen {
         if (this.startTime == 0) {
             this.startTime = System.currentTimeMillis();
         }
+        
+        // Subscribe to our session's progress while the screen is open
+        if (this.sessionId == null && this.minecraft != null && this.minecraft.player != null) {
+            this.sessionId = this.minecraft.player.getUUID();
+            NetworkHandler.sendWatchRequest(this.sessionId, true);
+        }
+        
+        // Ask what Start would mine, once per selection, and outline it in the world
+        if (!isMining && this.estimate == null && !this.estimatePending) {
+            requestEstimate();
+            showJob();
+        }
+    }
+    
+    /**
+     * Select the job Start will send; shows a fresh estimate of that same job, or none if null
+     */
+    public void setJob(NetworkHandler.StartMiningBatchPayload job) {
+        this.job = job;
+        this.estimate = null;
+        this.estimatePending = false;
+        if (this.startButton != null) {
+            this.startButton.active = job != null;
+        }
+        if (this.minecraft != null && !isMining) {
+            requestEstimate();
+            showJob();
+        }
+    }
+    
+    /**
+     * Show a dry run the server sent back; replies to older requests are ignored
+     */
+    public void onEstimate(NetworkHandler.MiningEstimatePayload payload) {
+        if (payload.requestId() == this.estimateRequestId) {
+            this.estimate = payload;
+            this.estimatePending = false;
+        }
+    }
+    
+    /**
+     * The range around the player, clipped to the build height, as a one-box job with the default filter
+     */
+    private NetworkHandler.StartMiningBatchPayload areaAroundPlayer() {
+        if (this.minecraft == null || this.minecraft.player == null || this.minecraft.level == null) {
+            return null;
+        }
+        BlockPos pos = this.minecraft.player.blockPosition();
+        int half = RANGE / 2;
+        int minY = Math.max(pos.getY() - half, this.minecraft.level.getMinBuildHeight());
+        int maxY = Math.min(pos.getY() + half - 1, this.minecraft.level.getMaxBuildHeight() - 1);
+        NetworkHandler.StartMiningBatchPayload.Box box = new NetworkHandler.StartMiningBatchPayload.Box(
+            pos.getX() - half, minY, pos.getZ() - half,
+            pos.getX() + half - 1, maxY, pos.getZ() + half - 1);
+        return new NetworkHandler.StartMiningBatchPayload(List.of(box), OptionalInt.empty());
+    }
+    
+    /**
+     * Outline the selected job's boxes under our session, replacing any earlier selection
+     */
+    private void showJob() {
+        if (this.sessionId == null) {
+            return;
+        }
+        AreaRenderer.removeAreas(this.sessionId);
+        if (this.job == null) {
+            return;
+        }
+        List<NetworkHandler.StartMiningBatchPayload.Box> boxes = this.job.boxes();
+        for (int i = 0; i < boxes.size(); i++) {
+            NetworkHandler.StartMiningBatchPayload.Box box = boxes.get(i);
+            AreaRenderer.setArea(new AreaRenderer.AreaKey(this.sessionId, i),
+                box.minX(), box.minY(), box.minZ(), box.maxX(), box.maxY(), box.maxZ(), AreaRenderer.DEFAULT_COLOR);
+        }
+    }
+    
+    private void requestEstimate() {
+        // Without a selection there is nothing Start would mine, so nothing to estimate
+        if (this.job == null) {
+            return;
+        }
+        this.estimateRequestId++;
+        this.estimatePending = NetworkHandler.sendEstimateRequest(this.estimateRequestId, this.job);
     }
     
     @Override
@@ -143,11 +262,11 @@ public class MiningScreen extends Screen {
         fill(poseStack, this.leftPos + 12, sectionY + 15, this.leftPos + SCREEN_WIDTH - 12, sectionY + 30, 0xFF333333);
         
         // Progress bar fill
-        int progressWidth = (int) ((blocksMined / (float) totalBlocks) * (SCREEN_WIDTH - 24));
+        int progressWidth = (int) (progressFraction() * (SCREEN_WIDTH - 24));
         fill(poseStack, this.leftPos + 12, sectionY + 15, this.leftPos + 12 + progressWidth, sectionY + 30, 0xFF00AA00);
         
         // Progress text
-        String progressText = String.format("%.1f%%", (blocksMined / (float) totalBlocks) * 100);
+        String progressText = String.format("%.1f%%", progressFraction() * 100);
         int textWidth = this.font.width(progressText);
         this.font.draw(poseStack, progressText, this.leftPos + SCREEN_WIDTH / 2 - textWidth / 2, sectionY + 17, 0xFFFFFFFF);
         
@@ -159,6 +278,12 @@ public class MiningScreen extends Screen {
     private void drawStatisticsSection(PoseStack poseStack) {
         int sectionY = this.topPos + 90;
         
+        // Before Start, show what the job would do instead
+        if (!isMining && (estimate != null || estimatePending)) {
+            drawEstimateSection(poseStack, sectionY);
+            return;
+        }
+        
         // Section title
         this.font.draw(poseStack, "Statistics", this.leftPos + 12, sectionY, 0xFFFFD700);
         
@@ -174,9 +299,9 @@ public class MiningScreen extends Screen {
         this.font.draw(poseStack, timeText, this.leftPos + 12, sectionY + 28, 0xFFCCCCCC);
         
         // Estimated time remaining
-        if (isMining && miningSpeed > 0) {
+        if (isMining && (etaSeconds >= 0 || miningSpeed > 0)) {
             long remainingBlocks = totalBlocks - blocksMined;
-            long estimatedSeconds = (long) (remainingBlocks / miningSpeed);
+            long estimatedSeconds = etaSeconds >= 0 ? etaSeconds : (long) (remainingBlocks / miningSpeed);
             long estMinutes = estimatedSeconds / 60;
             estimatedSeconds = estimatedSeconds % 60;
             String estTimeText = String.format("Est. Time: %02d:%02d", estMinutes, estimatedSeconds);
@@ -188,6 +313,43 @@ public class MiningScreen extends Screen {
         this.font.draw(poseStack, efficiencyText, this.leftPos + 12, sectionY + 54, 0xFFCCCCCC);
     }
     
+    private void drawEstimateSection(PoseStack poseStack, int sectionY) {
+        // Section title
+        this.font.draw(poseStack, "Estimate", this.leftPos + 12, sectionY, 0xFFFFD700);
+        
+        if (estimate == null) {
+            this.font.draw(poseStack, "Estimating...", this.leftPos + 12, sectionY + 15, 0xFFCCCCCC);
+            return;
+        }
+        
+        // Blocks and chunks
+        String blocksText = String.format("Blocks: %d in %d chunks", estimate.targetBlocks(), estimate.chunks());
+        this.font.draw(poseStack, blocksText, this.leftPos + 12, sectionY + 15, 0xFFCCCCCC);
+        if (estimate.isCapped()) {
+            String capText = String.format("Session cap: %d blocks", estimate.minedBlocks());
+            this.font.draw(poseStack, capText, this.leftPos + 12, sectionY + 28, 0xFFFFAA00);
+        }
+        
+        // Projected time
+        String timeText = String.format("Est. Time: %02d:%02d", estimate.etaSeconds() / 60, estimate.etaSeconds() % 60);
+        this.font.draw(poseStack, timeText, this.leftPos + 12, sectionY + 41, 0xFFCCCCCC);
+        
+        // Most common materials
+        StringBuilder materialsText = new StringBuilder();
+        int shown = Math.min(ESTIMATE_MATERIALS_SHOWN, estimate.materials().size());
+        for (int i = 0; i < shown; i++) {
+            NetworkHandler.MiningEstimatePayload.MaterialCount material = estimate.materials().get(i);
+            if (i > 0) {
+                materialsText.append(", ");
+            }
+            materialsText.append(material.name().toLowerCase(Locale.ROOT)).append(' ').append(material.count());
+        }
+        if (estimate.materials().size() > shown) {
+            materialsText.append(", ...");
+        }
+        this.font.draw(poseStack, materialsText.toString(), this.leftPos + 12, sectionY + 54, 0xFFCCCCCC);
+    }
+    
     private void drawMiningInfoSection(PoseStack poseStack) {
         int sectionY = this.topPos + 155;
         
@@ -198,8 +360,15 @@ public class MiningScreen extends Screen {
         String modeText = "Mode: Normal";
         this.font.draw(poseStack, modeText, this.leftPos + 12, sectionY + 15, 0xFFCCCCCC);
         
-        // Range info
-        String rangeText = "Range: 64 blocks";
+        // Selected area
+        String rangeText = "Area: none selected";
+        if (job != null && job.boxes().size() == 1) {
+            NetworkHandler.StartMiningBatchPayload.Box box = job.boxes().get(0);
+            rangeText = String.format("Area: %dx%dx%d",
+                box.maxX() - box.minX() + 1, box.maxY() - box.minY() + 1, box.maxZ() - box.minZ() + 1);
+        } else if (job != null) {
+            rangeText = String.format("Area: %d boxes", job.boxes().size());
+        }
         this.font.draw(poseStack, rangeText, this.leftPos + 130, sectionY + 15, 0xFFCCCCCC);
     }
     
@@ -207,16 +376,22 @@ public class MiningScreen extends Screen {
     public void tick() {
         super.tick();
         
-        // Simulate mining progress
-        if (isMining && blocksMined < totalBlocks) {
-            blocksMined += (long) (miningSpeed * 0.5);
-            if (blocksMined > totalBlocks) {
-                blocksMined = totalBlocks;
-            }
-            miningProgress = (int) ((blocksMined / (float) totalBlocks) * 100);
+        // Mirror the progress streamed by the server
+        ClientProgressTracker.Progress progress = sessionId == null ? null : ClientProgressTracker.get(sessionId);
+        if (progress != null) {
+            blocksMined = progress.getBlocksMined();
+            totalBlocks = progress.getTotalBlocks();
+            etaSeconds = progress.getEtaSeconds();
+            miningSpeed = (float) progress.getBlocksPerSecond();
+            isMining = progress.isActive();
+            miningProgress = (int) (progressFraction() * 100);
         }
     }
     
+    private float progressFraction() {
+        return totalBlocks <= 0 ? 0.0f : Math.min(1.0f, blocksMined / (float) totalBlocks);
+    }
+    
     @Override
     public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
         // ESC to close
@@ -237,16 +412,33 @@ public class MiningScreen extends Screen {
         super.onClose();
     }
     
+    @Override
+    public void removed() {
+        super.removed();
+        if (sessionId != null) {
+            // Keep streaming a running job so its remaining-blocks overlay stays live; the server ends the stream with the job
+            if (!isMining || !AreaRenderer.isRenderEnabled()) {
+                NetworkHandler.sendWatchRequest(sessionId, false);
+                RemainingOverlay.remove(sessionId);
+                // Without the stream nothing would tell us when the job ends, so stop outlining it now
+                AreaRenderer.removeAreas(sessionId);
+            }
+            sessionId = null;
+        }
+    }
+    
     private void onStartMining() {
-        if (!isMining) {
+        // Send the very payload the estimate was made for
+        if (!isMining && job != null && NetworkHandler.sendStartBatch(job)) {
             isMining = true;
+            estimate = null;
             startTime = System.currentTimeMillis();
             elapsedTime = 0;
         }
     }
     
     private void onStopMining() {
-        if (isMining) {
+        if (isMining && NetworkHandler.sendStop()) {
             isMining = false;
         }
     }
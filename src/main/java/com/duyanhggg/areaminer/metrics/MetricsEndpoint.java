@@ -0,0 +1,91 @@
+package com.duyanhggg.areaminer.metrics;
+
+import com.duyanhggg.areaminer.AreaMiner;
+import com.duyanhggg.areaminer.mining.MiningController;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * MetricsEndpoint - Loopback-only HTTP endpoint for scraping mining metrics
+ * Serves {@code /metrics} as Prometheus text and {@code /metrics.json} as JSON.
+ * Disabled unless the {@code areaminer.metrics.port} system property is set.
+ */
+public final class MetricsEndpoint {
+    
+    public static final String PORT_PROPERTY = "areaminer.metrics.port";
+    
+    private static HttpServer server;
+    
+    private MetricsEndpoint() {
+    }
+    
+    /**
+     * Start the endpoint if a port is configured; failures are logged, never fatal
+     */
+    public static synchronized void startIfConfigured() {
+        int port = Integer.getInteger(PORT_PROPERTY, 0);
+        if (port <= 0 || server != null) {
+            return;
+        }
+        
+        try {
+            // Bound to loopback only; metrics are for local scrapers and admins
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4", MetricsExporter::toText));
+            server.createContext("/metrics.json", exchange -> respond(exchange, "application/json", MetricsExporter::toJson));
+            server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "AreaMiner-Metrics");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            AreaMiner.LOGGER.info("Mining metrics available at http://127.0.0.1:{}/metrics", port);
+        } catch (IOException e) {
+            AreaMiner.LOGGER.warn("Could not start metrics endpoint on port {}: {}", port, e.toString());
+            server = null;
+        }
+    }
+    
+    /**
+     * Stop the endpoint if it is running
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+    
+    private static void respond(HttpExchange exchange, String contentType,
+                                Function<MiningController, String> renderer) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            MiningController controller;
+            try {
+                controller = MiningController.getInstance();
+            } catch (IllegalStateException e) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            
+            byte[] body = renderer.apply(controller).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.duyanhggg.areaminer.metrics;
+
+import com.duyanhggg.areaminer.mining.MiningController;
+import com.duyanhggg.areaminer.mining.MiningController.MiningSession;
+import com.google.gson.JsonObject;
+
+/**
+ * MetricsExporter - Renders the controller's global and per-session metrics
+ * Shared by the metrics command and the local HTTP endpoint
+ */
+public final class MetricsExporter {
+    
+    private MetricsExporter() {
+    }
+    
+    /**
+     * Render metrics in Prometheus text format; session metrics carry a player label
+     */
+    public static String toText(MiningController controller) {
+        StringBuilder out = new StringBuilder(4096);
+        controller.getMetrics().writeText(out, "");
+        for (MiningSession session : controller.getAllActiveSessions()) {
+            session.getMetrics().writeText(out, "player=\"" + session.getPlayerName() + "\"");
+        }
+        return out.toString();
+    }
+    
+    /**
+     * Render metrics as a JSON document with a global section and one entry per session
+     */
+    public static String toJson(MiningController controller) {
+        JsonObject json = new JsonObject();
+        json.add("global", controller.getMetrics().toJson());
+        
+        JsonObject sessions = new JsonObject();
+        for (MiningSession session : controller.getAllActiveSessions()) {
+            JsonObject entry = session.getMetrics().toJson();
+            entry.addProperty("state", session.getState().name());
+            entry.addProperty("progress", session.getProgress());
+            sessions.add(session.getPlayerName(), entry);
+        }
+        json.add("sessions", sessions);
+        return json.toString();
+    }
+}
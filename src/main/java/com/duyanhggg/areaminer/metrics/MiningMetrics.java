@@ -0,0 +1,287 @@
+package com.duyanhggg.areaminer.metrics;
+
+import com.google.gson.JsonObject;
+import org.bukkit.Material;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MiningMetrics - Counters and latency histograms for mining work
+ * The controller owns one global instance and gives every session a child of it;
+ * anything recorded on a child is also counted by its parent. All recording methods
+ * are lock-free and safe to call from the tick thread and planner threads.
+ */
+public class MiningMetrics {
+    
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+    private static final double[] QUANTILES = {50.0, 90.0, 99.0, 99.9};
+    
+    private final MiningMetrics parent;
+    private final LongAdder blocksMined;
+    private final LongAdder blocksScanned;
+    private final LongAdder chunkLoads;
+    private final LongAdder sessionsStarted;
+    private final LongAdder sessionsCompleted;
+    private final LatencyHistogram batchLatency;
+    private final LatencyHistogram planningTime;
+    private final LatencyHistogram tickTime;
+    private final AtomicReferenceArray<LongAdder> materialCounts;
+    
+    // Rate and gauges are only written from the tick thread
+    private long rateWindowStart;
+    private long rateWindowMined;
+    private volatile double blocksPerSecond;
+    private volatile int queueDepth;
+    private volatile int planningSessions;
+    
+    public MiningMetrics() {
+        this(null);
+    }
+    
+    public MiningMetrics(MiningMetrics parent) {
+        this.parent = parent;
+        this.blocksMined = new LongAdder();
+        this.blocksScanned = new LongAdder();
+        this.chunkLoads = new LongAdder();
+        this.sessionsStarted = new LongAdder();
+        this.sessionsCompleted = new LongAdder();
+        this.batchLatency = new LatencyHistogram();
+        this.planningTime = new LatencyHistogram();
+        this.tickTime = new LatencyHistogram();
+        this.materialCounts = new AtomicReferenceArray<>(Material.values().length);
+    }
+    
+    /**
+     * Count one mined block of a material
+     */
+    public void recordBlockMined(Material material) {
+        blocksMined.increment();
+        materialCounter(material).increment();
+        if (parent != null) {
+            parent.recordBlockMined(material);
+        }
+    }
+    
+    public void recordBlocksScanned(long count) {
+        blocksScanned.add(count);
+        if (parent != null) {
+            parent.recordBlocksScanned(count);
+        }
+    }
+    
+    /**
+     * Count a chunk that was not loaded when mining or planning needed it
+     */
+    public void recordChunkLoad() {
+        chunkLoads.increment();
+        if (parent != null) {
+            parent.recordChunkLoad();
+        }
+    }
+    
+    /**
+     * Record how long one mining batch took
+     */
+    public void recordBatch(long nanos) {
+        batchLatency.record(nanos);
+        if (parent != null) {
+            parent.recordBatch(nanos);
+        }
+    }
+    
+    /**
+     * Record the wall time from planner start to finished plan
+     */
+    public void recordPlanning(long nanos) {
+        planningTime.record(nanos);
+        if (parent != null) {
+            parent.recordPlanning(nanos);
+        }
+    }
+    
+    public void recordSessionStarted() {
+        sessionsStarted.increment();
+        if (parent != null) {
+            parent.recordSessionStarted();
+        }
+    }
+    
+    public void recordSessionCompleted() {
+        sessionsCompleted.increment();
+        if (parent != null) {
+            parent.recordSessionCompleted();
+        }
+    }
+    
+    /**
+     * Record the end of a controller tick: time spent, queue gauges and the mining rate
+     */
+    public void recordTick(long spentNanos, int queueDepth, int planningSessions) {
+        tickTime.record(spentNanos);
+        this.queueDepth = queueDepth;
+        this.planningSessions = planningSessions;
+        updateRate(System.nanoTime());
+    }
+    
+    /**
+     * Roll the blocks/sec window forward; called once per tick for every running session
+     */
+    public void updateRate(long nowNanos) {
+        long mined = blocksMined.sum();
+        if (rateWindowStart == 0L) {
+            rateWindowStart = nowNanos;
+            rateWindowMined = mined;
+            return;
+        }
+        
+        long elapsed = nowNanos - rateWindowStart;
+        if (elapsed >= RATE_WINDOW_NANOS) {
+            blocksPerSecond = (mined - rateWindowMined) * 1_000_000_000.0 / elapsed;
+            rateWindowStart = nowNanos;
+            rateWindowMined = mined;
+        }
+    }
+    
+    public long getBlocksMined() {
+        return blocksMined.sum();
+    }
+    
+    public long getBlocksScanned() {
+        return blocksScanned.sum();
+    }
+    
+    public long getChunkLoads() {
+        return chunkLoads.sum();
+    }
+    
+    public double getBlocksPerSecond() {
+        return blocksPerSecond;
+    }
+    
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+    
+    public LatencyHistogram getBatchLatency() {
+        return batchLatency;
+    }
+    
+    public LatencyHistogram getPlanningTime() {
+        return planningTime;
+    }
+    
+    /**
+     * Get mined block counts for every material seen so far
+     */
+    public Map<Material, Long> getMaterialCounts() {
+        Map<Material, Long> counts = new LinkedHashMap<>();
+        Material[] materials = Material.values();
+        for (int i = 0; i < materialCounts.length(); i++) {
+            LongAdder counter = materialCounts.get(i);
+            if (counter != null) {
+                counts.put(materials[i], counter.sum());
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Write all metrics in Prometheus text format, adding the given labels to every line
+     */
+    public void writeText(StringBuilder out, String labels) {
+        String base = labels == null || labels.isEmpty() ? "" : labels;
+        line(out, "areaminer_blocks_mined_total", base, blocksMined.sum());
+        line(out, "areaminer_blocks_scanned_total", base, blocksScanned.sum());
+        line(out, "areaminer_chunk_loads_total", base, chunkLoads.sum());
+        line(out, "areaminer_blocks_per_second", base, format(blocksPerSecond));
+        if (parent == null) {
+            line(out, "areaminer_sessions_started_total", base, sessionsStarted.sum());
+            line(out, "areaminer_sessions_completed_total", base, sessionsCompleted.sum());
+            line(out, "areaminer_queue_depth", base, queueDepth);
+            line(out, "areaminer_planning_sessions", base, planningSessions);
+            writeHistogram(out, "areaminer_tick_nanos", base, tickTime);
+        }
+        writeHistogram(out, "areaminer_batch_latency_nanos", base, batchLatency);
+        writeHistogram(out, "areaminer_planning_nanos", base, planningTime);
+        
+        getMaterialCounts().forEach((material, count) -> line(out, "areaminer_blocks_mined_by_material_total",
+            join(base, "material=\"" + material.name().toLowerCase(Locale.ROOT) + "\""), count));
+    }
+    
+    /**
+     * Get all metrics as a JSON object
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("blocksMined", blocksMined.sum());
+        json.addProperty("blocksScanned", blocksScanned.sum());
+        json.addProperty("chunkLoads", chunkLoads.sum());
+        json.addProperty("blocksPerSecond", blocksPerSecond);
+        if (parent == null) {
+            json.addProperty("sessionsStarted", sessionsStarted.sum());
+            json.addProperty("sessionsCompleted", sessionsCompleted.sum());
+            json.addProperty("queueDepth", queueDepth);
+            json.addProperty("planningSessions", planningSessions);
+            json.add("tickNanos", histogramJson(tickTime));
+        }
+        json.add("batchLatencyNanos", histogramJson(batchLatency));
+        json.add("planningNanos", histogramJson(planningTime));
+        
+        JsonObject materials = new JsonObject();
+        getMaterialCounts().forEach((material, count) ->
+            materials.addProperty(material.name().toLowerCase(Locale.ROOT), count));
+        json.add("materials", materials);
+        return json;
+    }
+    
+    private LongAdder materialCounter(Material material) {
+        int ordinal = material.ordinal();
+        LongAdder counter = materialCounts.get(ordinal);
+        if (counter == null) {
+            materialCounts.compareAndSet(ordinal, null, new LongAdder());
+            counter = materialCounts.get(ordinal);
+        }
+        return counter;
+    }
+    
+    private static void writeHistogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            line(out, name, join(labels, "quantile=\"" + quantile / 100.0 + "\""), histogram.percentile(quantile));
+        }
+        line(out, name + "_count", labels, histogram.getCount());
+        line(out, name + "_max", labels, histogram.getMax());
+        line(out, name + "_mean", labels, format(histogram.getMean()));
+    }
+    
+    private static JsonObject histogramJson(LatencyHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("mean", histogram.getMean());
+        json.addProperty("p50", histogram.percentile(50.0));
+        json.addProperty("p90", histogram.percentile(90.0));
+        json.addProperty("p99", histogram.percentile(99.0));
+        json.addProperty("p999", histogram.percentile(99.9));
+        json.addProperty("max", histogram.getMax());
+        return json;
+    }
+    
+    private static void line(StringBuilder out, String name, String labels, Object value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+    
+    private static String join(String labels, String label) {
+        return labels.isEmpty() ? label : labels + "," + label;
+    }
+    
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
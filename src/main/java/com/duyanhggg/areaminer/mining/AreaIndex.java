@@ -0,0 +1,266 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * AreaIndex - Spatial index over many mining areas
+ * Each world keeps a grid of 64x64 block columns mapping to the areas that touch them,
+ * so point and box queries only look at nearby areas. Areas spanning more than
+ * {@link #MAX_CELLS_PER_AREA} cells are kept in a short per-world list instead.
+ * Not thread-safe; use from the main thread.
+ */
+public class AreaIndex {
+
+    private static final int CELL_SHIFT = 6;
+    private static final int MAX_CELLS_PER_AREA = 64;
+
+    private final Map<UUID, WorldGrid> worlds;
+    private final Map<MiningArea, Registration> registrations;
+
+    public AreaIndex() {
+        this.worlds = new HashMap<>();
+        // Area equality depends on its mutable corners, so track registrations by identity
+        this.registrations = new IdentityHashMap<>();
+    }
+
+    /**
+     * Add an area to the index; it is reindexed automatically when its bounds change
+     */
+    public void add(MiningArea area) {
+        if (registrations.containsKey(area)) {
+            return;
+        }
+        if (area.getIndex() != null) {
+            throw new IllegalStateException("Area " + area.getId() + " is already registered in another index");
+        }
+
+        area.setIndex(this);
+        insert(area);
+    }
+
+    /**
+     * Remove an area from the index
+     */
+    public void remove(MiningArea area) {
+        Registration registration = registrations.remove(area);
+        if (registration != null) {
+            erase(area, registration);
+            area.setIndex(null);
+        }
+    }
+
+    /**
+     * Move an area to the cells matching its current bounds
+     */
+    void update(MiningArea area) {
+        Registration registration = registrations.remove(area);
+        if (registration != null) {
+            erase(area, registration);
+            insert(area);
+        }
+    }
+
+    /**
+     * Get all areas containing a block coordinate
+     */
+    public List<MiningArea> findAt(World world, int x, int y, int z) {
+        WorldGrid grid = world == null ? null : worlds.get(world.getUID());
+        if (grid == null) {
+            return Collections.emptyList();
+        }
+
+        List<MiningArea> result = new ArrayList<>();
+        List<MiningArea> cell = grid.cells.get(cellKey(x >> CELL_SHIFT, z >> CELL_SHIFT));
+        if (cell != null) {
+            for (MiningArea area : cell) {
+                if (area.contains(x, y, z)) {
+                    result.add(area);
+                }
+            }
+        }
+        for (MiningArea area : grid.large) {
+            if (area.contains(x, y, z)) {
+                result.add(area);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get all areas containing a location
+     */
+    public List<MiningArea> findAt(Location location) {
+        if (location == null) {
+            return Collections.emptyList();
+        }
+        return findAt(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Get all areas containing a block
+     */
+    public List<MiningArea> findAt(Block block) {
+        if (block == null) {
+            return Collections.emptyList();
+        }
+        return findAt(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Get all areas a player is standing in
+     */
+    public List<MiningArea> findAt(Player player) {
+        return player == null ? Collections.emptyList() : findAt(player.getLocation());
+    }
+
+    /**
+     * Get all areas intersecting an inclusive box
+     */
+    public List<MiningArea> findIntersecting(World world, int minX, int minY, int minZ,
+                                             int maxX, int maxY, int maxZ) {
+        WorldGrid grid = world == null ? null : worlds.get(world.getUID());
+        if (grid == null) {
+            return Collections.emptyList();
+        }
+
+        List<MiningArea> result = new ArrayList<>();
+        Set<MiningArea> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        int minCellX = minX >> CELL_SHIFT;
+        int maxCellX = maxX >> CELL_SHIFT;
+        int minCellZ = minZ >> CELL_SHIFT;
+        int maxCellZ = maxZ >> CELL_SHIFT;
+
+        // A very large query box is cheaper to answer by scanning the areas than the cells
+        if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > grid.cells.size()) {
+            for (List<MiningArea> cell : grid.cells.values()) {
+                collectIntersecting(cell, seen, result, minX, minY, minZ, maxX, maxY, maxZ);
+            }
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    List<MiningArea> cell = grid.cells.get(cellKey(cellX, cellZ));
+                    if (cell != null) {
+                        collectIntersecting(cell, seen, result, minX, minY, minZ, maxX, maxY, maxZ);
+                    }
+                }
+            }
+        }
+        collectIntersecting(grid.large, seen, result, minX, minY, minZ, maxX, maxY, maxZ);
+        return result;
+    }
+
+    /**
+     * Get all indexed areas that overlap the given area, excluding the area itself
+     */
+    public List<MiningArea> findOverlapping(MiningArea area) {
+        List<MiningArea> result = findIntersecting(area.getWorld(),
+            area.minX(), area.minY(), area.minZ(), area.maxX(), area.maxY(), area.maxZ());
+        result.removeIf(other -> other == area);
+        return result;
+    }
+
+    /**
+     * Check if any indexed area other than the given one overlaps it
+     */
+    public boolean overlapsAny(MiningArea area) {
+        return !findOverlapping(area).isEmpty();
+    }
+
+    /**
+     * Get the number of indexed areas
+     */
+    public int size() {
+        return registrations.size();
+    }
+
+    /**
+     * Remove all areas from the index
+     */
+    public void clear() {
+        registrations.keySet().forEach(area -> area.setIndex(null));
+        registrations.clear();
+        worlds.clear();
+    }
+
+    private void insert(MiningArea area) {
+        World world = area.getWorld();
+        if (world == null) {
+            // Kept registered so it is indexed once it gets a world
+            registrations.put(area, new Registration(null, 0, 0, -1, -1));
+            return;
+        }
+
+        WorldGrid grid = worlds.computeIfAbsent(world.getUID(), uid -> new WorldGrid());
+        int minCellX = area.minX() >> CELL_SHIFT;
+        int minCellZ = area.minZ() >> CELL_SHIFT;
+        int maxCellX = area.maxX() >> CELL_SHIFT;
+        int maxCellZ = area.maxZ() >> CELL_SHIFT;
+
+        if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > MAX_CELLS_PER_AREA) {
+            grid.large.add(area);
+            registrations.put(area, new Registration(world.getUID(), 0, 0, -1, -1));
+            return;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                grid.cells.computeIfAbsent(cellKey(cellX, cellZ), key -> new ArrayList<>(2)).add(area);
+            }
+        }
+        registrations.put(area, new Registration(world.getUID(), minCellX, minCellZ, maxCellX, maxCellZ));
+    }
+
+    private void erase(MiningArea area, Registration registration) {
+        WorldGrid grid = registration.world() == null ? null : worlds.get(registration.world());
+        if (grid == null) {
+            return;
+        }
+
+        grid.large.removeIf(other -> other == area);
+        for (int cellX = registration.minCellX(); cellX <= registration.maxCellX(); cellX++) {
+            for (int cellZ = registration.minCellZ(); cellZ <= registration.maxCellZ(); cellZ++) {
+                long key = cellKey(cellX, cellZ);
+                List<MiningArea> cell = grid.cells.get(key);
+                if (cell != null) {
+                    cell.removeIf(other -> other == area);
+                    if (cell.isEmpty()) {
+                        grid.cells.remove(key);
+                    }
+                }
+            }
+        }
+
+        if (grid.cells.isEmpty() && grid.large.isEmpty()) {
+            worlds.remove(registration.world());
+        }
+    }
+
+    private static void collectIntersecting(List<MiningArea> areas, Set<MiningArea> seen, List<MiningArea> result,
+                                            int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (MiningArea area : areas) {
+            if (area.getBounds().intersects(minX, minY, minZ, maxX, maxY, maxZ) && seen.add(area)) {
+                result.add(area);
+            }
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Cell range an area was inserted with, so it can be erased after its bounds change
+     */
+    private record Registration(UUID world, int minCellX, int minCellZ, int maxCellX, int maxCellZ) {
+    }
+
+    private static final class WorldGrid {
+        private final Map<Long, List<MiningArea>> cells = new HashMap<>();
+        private final List<MiningArea> large = new ArrayList<>();
+    }
+}
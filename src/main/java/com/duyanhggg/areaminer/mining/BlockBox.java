@@ -0,0 +1,60 @@
+package com.duyanhggg.areaminer.mining;
+
+/**
+ * BlockBox - Immutable axis-aligned box of block coordinates, bounds inclusive
+ * Always normalized so min is not greater than max on any axis. Queries allocate
+ * nothing, so a box can be shared and checked on per-block hot paths.
+ */
+public record BlockBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+
+    public BlockBox {
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            throw new IllegalArgumentException("Box is not normalized: " + minX + "," + minY + "," + minZ
+                + " to " + maxX + "," + maxY + "," + maxZ);
+        }
+    }
+
+    /**
+     * Box spanning two corners given in any order
+     */
+    public static BlockBox of(int x1, int y1, int z1, int x2, int y2, int z2) {
+        return new BlockBox(Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2),
+            Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2));
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    public boolean intersects(BlockBox other) {
+        return intersects(other.minX, other.minY, other.minZ, other.maxX, other.maxY, other.maxZ);
+    }
+
+    /**
+     * Check if this box shares at least one block with a normalized range
+     */
+    public boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return this.minX <= maxX && this.maxX >= minX
+            && this.minY <= maxY && this.maxY >= minY
+            && this.minZ <= maxZ && this.maxZ >= minZ;
+    }
+
+    public int sizeX() {
+        return maxX - minX + 1;
+    }
+
+    public int sizeY() {
+        return maxY - minY + 1;
+    }
+
+    public int sizeZ() {
+        return maxZ - minZ + 1;
+    }
+
+    /**
+     * Number of blocks in the box
+     */
+    public long volume() {
+        return (long) sizeX() * sizeY() * sizeZ();
+    }
+}
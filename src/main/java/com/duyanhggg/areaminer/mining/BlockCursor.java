@@ -0,0 +1,219 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Location;
+
+/**
+ * BlockCursor - Lazy, resumable walk over a cuboid in chunk-section order
+ * Visits every coordinate of one 16x16x16 section before moving to the next,
+ * and keeps its whole position in a single packed long
+ */
+public class BlockCursor {
+
+    /** Position value once every block has been visited */
+    public static final long EXHAUSTED = Long.MAX_VALUE;
+
+    // Same layout as vanilla BlockPos.asLong(): 26 bits X, 26 bits Z, 12 bits Y
+    private static final int PACKED_X_BITS = 26;
+    private static final int PACKED_Z_BITS = 26;
+    private static final int PACKED_Y_BITS = 12;
+    private static final long PACKED_X_MASK = (1L << PACKED_X_BITS) - 1L;
+    private static final long PACKED_Z_MASK = (1L << PACKED_Z_BITS) - 1L;
+    private static final long PACKED_Y_MASK = (1L << PACKED_Y_BITS) - 1L;
+    private static final int X_OFFSET = PACKED_Y_BITS + PACKED_Z_BITS;
+    private static final int Z_OFFSET = PACKED_Y_BITS;
+
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private long position;
+
+    /**
+     * Create a cursor over the inclusive box between two corners in any order
+     */
+    public BlockCursor(int x1, int y1, int z1, int x2, int y2, int z2) {
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.minZ = Math.min(z1, z2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+        this.maxZ = Math.max(z1, z2);
+        this.position = pack(minX, minY, minZ);
+    }
+
+    /**
+     * Create a cursor over the box spanned by two locations
+     */
+    public static BlockCursor between(Location corner1, Location corner2) {
+        return new BlockCursor(
+            corner1.getBlockX(), corner1.getBlockY(), corner1.getBlockZ(),
+            corner2.getBlockX(), corner2.getBlockY(), corner2.getBlockZ()
+        );
+    }
+
+    /**
+     * Check if there are blocks left to visit
+     */
+    public boolean hasNext() {
+        return position != EXHAUSTED;
+    }
+
+    /**
+     * Return the packed position of the next block and advance past it
+     */
+    public long next() {
+        long current = position;
+        if (current != EXHAUSTED) {
+            position = advance(unpackX(current), unpackY(current), unpackZ(current));
+        }
+        return current;
+    }
+
+    /**
+     * Skip the rest of the current chunk section and move to the first block of the next one
+     */
+    public void skipSection() {
+        long current = position;
+        if (current != EXHAUSTED) {
+            position = nextSection(unpackX(current) >> 4, unpackY(current) >> 4, unpackZ(current) >> 4);
+        }
+    }
+
+    /**
+     * Get the packed position of the next block to be visited
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Move the cursor to a previously saved position
+     */
+    public void seek(long position) {
+        if (position != EXHAUSTED && !contains(unpackX(position), unpackY(position), unpackZ(position))) {
+            throw new IllegalArgumentException("Position outside cursor bounds: " + position);
+        }
+        this.position = position;
+    }
+
+    /**
+     * Rewind the cursor to the first block
+     */
+    public void reset() {
+        this.position = pack(minX, minY, minZ);
+    }
+
+    /**
+     * Get the number of blocks covered by this cursor
+     */
+    public long getVolume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    /**
+     * Check if a coordinate lies inside the cursor bounds
+     */
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Step to the next coordinate: X, then Z, then Y inside a section,
+     * then the next section up the column, then the next column
+     */
+    private long advance(int x, int y, int z) {
+        if (x < Math.min(maxX, x | 15)) {
+            return pack(x + 1, y, z);
+        }
+        int sectionMinX = Math.max(minX, x & ~15);
+        if (z < Math.min(maxZ, z | 15)) {
+            return pack(sectionMinX, y, z + 1);
+        }
+        int sectionMinZ = Math.max(minZ, z & ~15);
+        if (y < Math.min(maxY, y | 15)) {
+            return pack(sectionMinX, y + 1, sectionMinZ);
+        }
+        return nextSection(x >> 4, y >> 4, z >> 4);
+    }
+
+    private long nextSection(int sectionX, int sectionY, int sectionZ) {
+        if (sectionY < maxY >> 4) {
+            return sectionStart(sectionX, sectionY + 1, sectionZ);
+        }
+        if (sectionX < maxX >> 4) {
+            return sectionStart(sectionX + 1, minY >> 4, sectionZ);
+        }
+        if (sectionZ < maxZ >> 4) {
+            return sectionStart(minX >> 4, minY >> 4, sectionZ + 1);
+        }
+        return EXHAUSTED;
+    }
+
+    private long sectionStart(int sectionX, int sectionY, int sectionZ) {
+        return pack(
+            Math.max(minX, sectionX << 4),
+            Math.max(minY, sectionY << 4),
+            Math.max(minZ, sectionZ << 4)
+        );
+    }
+
+    /**
+     * Check if a column's X and Z fit the packed layout; Y always fits the world height
+     */
+    public static boolean isPackable(int x, int z) {
+        return x == unpackX(pack(x, 0, z)) && z == unpackZ(pack(x, 0, z));
+    }
+
+    /**
+     * Pack block coordinates into a single long
+     */
+    public static long pack(int x, int y, int z) {
+        return ((x & PACKED_X_MASK) << X_OFFSET)
+            | ((z & PACKED_Z_MASK) << Z_OFFSET)
+            | (y & PACKED_Y_MASK);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed << (64 - X_OFFSET - PACKED_X_BITS) >> (64 - PACKED_X_BITS));
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << (64 - PACKED_Y_BITS) >> (64 - PACKED_Y_BITS));
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << (64 - Z_OFFSET - PACKED_Z_BITS) >> (64 - PACKED_Z_BITS));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BlockCursor{min=(%d,%d,%d), max=(%d,%d,%d), done=%b}",
+            minX, minY, minZ, maxX, maxY, maxZ, !hasNext());
+    }
+}
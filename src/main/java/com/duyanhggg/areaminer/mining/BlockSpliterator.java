@@ -0,0 +1,181 @@
+package com.duyanhggg.areaminer.mining;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * BlockSpliterator - Packed block positions of a box, split by chunk section
+ * Walks in the same order as {@link BlockCursor}: X, then Z, then Y inside a section,
+ * then up the section column, then along X and Z. Splitting hands out whole ranges of
+ * sections, so parallel workers never share a section and each keeps O(1) state.
+ */
+class BlockSpliterator implements Spliterator.OfLong {
+
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    private final BlockBox box;
+    private final int minSectionX;
+    private final int minSectionY;
+    private final int minSectionZ;
+    private final int sectionsX;
+    private final int sectionsY;
+    private int from;
+    private final int to;
+
+    // Bounds of the open section and the next block in it; x > maxX means none is open
+    private int sMinX;
+    private int sMaxX;
+    private int sMinZ;
+    private int sMaxZ;
+    private int sMaxY;
+    private int x;
+    private int y;
+    private int z;
+
+    BlockSpliterator(BlockBox box) {
+        this(box, 0, sectionCount(box));
+    }
+
+    private BlockSpliterator(BlockBox box, int from, int to) {
+        this.box = box;
+        this.minSectionX = box.minX() >> 4;
+        this.minSectionY = box.minY() >> 4;
+        this.minSectionZ = box.minZ() >> 4;
+        this.sectionsX = (box.maxX() >> 4) - minSectionX + 1;
+        this.sectionsY = (box.maxY() >> 4) - minSectionY + 1;
+        this.from = from;
+        this.to = to;
+        this.x = 1;
+        this.sMaxX = 0;
+    }
+
+    private static int sectionCount(BlockBox box) {
+        long count = (long) ((box.maxX() >> 4) - (box.minX() >> 4) + 1)
+            * ((box.maxY() >> 4) - (box.minY() >> 4) + 1)
+            * ((box.maxZ() >> 4) - (box.minZ() >> 4) + 1);
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Box spans too many sections: " + box);
+        }
+        return (int) count;
+    }
+
+    /**
+     * Visit the remaining blocks until done or the visitor returns false
+     * Returns true if every block was visited.
+     */
+    boolean visit(BlockVisitor visitor) {
+        while (true) {
+            while (x <= sMaxX) {
+                int bx = x;
+                int by = y;
+                int bz = z;
+                step();
+                if (!visitor.visit(bx, by, bz)) {
+                    return false;
+                }
+            }
+            if (from >= to) {
+                return true;
+            }
+            open(from++);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        while (x > sMaxX) {
+            if (from >= to) {
+                return false;
+            }
+            open(from++);
+        }
+        long packed = BlockCursor.pack(x, y, z);
+        step();
+        action.accept(packed);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        while (true) {
+            // Finish the open section with plain loops, then take whole sections
+            for (; y <= sMaxY && x <= sMaxX; y++) {
+                for (; z <= sMaxZ; z++) {
+                    for (; x <= sMaxX; x++) {
+                        action.accept(BlockCursor.pack(x, y, z));
+                    }
+                    x = sMinX;
+                }
+                z = sMinZ;
+            }
+            x = sMaxX + 1;
+            if (from >= to) {
+                return;
+            }
+            open(from++);
+        }
+    }
+
+    /**
+     * Split off the first half of the sections not yet started
+     * Declines while a section is partly visited, since the prefix would not be contiguous.
+     */
+    @Override
+    public Spliterator.OfLong trySplit() {
+        if (x <= sMaxX || to - from < 2) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        BlockSpliterator prefix = new BlockSpliterator(box, from, middle);
+        from = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long open = x <= sMaxX ? SECTION_VOLUME : 0;
+        return Math.min(box.volume(), (long) (to - from) * SECTION_VOLUME + open);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * Open a section by its index in walk order: Y fastest, then X, then Z
+     */
+    private void open(int section) {
+        int sectionY = minSectionY + section % sectionsY;
+        int column = section / sectionsY;
+        int sectionX = minSectionX + column % sectionsX;
+        int sectionZ = minSectionZ + column / sectionsX;
+
+        sMinX = Math.max(box.minX(), sectionX << 4);
+        sMaxX = Math.min(box.maxX(), (sectionX << 4) + 15);
+        sMinZ = Math.max(box.minZ(), sectionZ << 4);
+        sMaxZ = Math.min(box.maxZ(), (sectionZ << 4) + 15);
+        sMaxY = Math.min(box.maxY(), (sectionY << 4) + 15);
+        x = sMinX;
+        z = sMinZ;
+        y = Math.max(box.minY(), sectionY << 4);
+    }
+
+    private void step() {
+        if (x < sMaxX) {
+            x++;
+            return;
+        }
+        x = sMinX;
+        if (z < sMaxZ) {
+            z++;
+            return;
+        }
+        z = sMinZ;
+        if (y < sMaxY) {
+            y++;
+            return;
+        }
+        x = sMaxX + 1; // Section finished
+    }
+}
@@ -0,0 +1,13 @@
+package com.duyanhggg.areaminer.mining;
+
+/**
+ * BlockVisitor - Callback for walking block coordinates without creating Block handles
+ */
+@FunctionalInterface
+public interface BlockVisitor {
+
+    /**
+     * Visit one block; return false to stop the walk
+     */
+    boolean visit(int x, int y, int z);
+}
@@ -0,0 +1,142 @@
+package com.duyanhggg.areaminer.mining;
+
+import com.duyanhggg.areaminer.metrics.MiningMetrics;
+import org.bukkit.World;
+
+/**
+ * ChunkPrefetcher - Loads the chunks of a mining job ahead of the worker that needs them
+ * Walks a fixed list of chunk columns in visiting order. Entering a chunk releases the
+ * tickets of every chunk before it and requests the next few asynchronously, so the
+ * worker never waits on disk I/O and finished chunks are free to unload.
+ * Main thread only; async chunk futures complete on the main thread.
+ */
+public class ChunkPrefetcher {
+
+    private static final byte IDLE = 0;
+    private static final byte REQUESTED = 1;
+    private static final byte LOADED = 2;
+    private static final byte FAILED = 3;
+    private static final byte RELEASED = 4;
+
+    private final World world;
+    private final ChunkTickets tickets;
+    private final long[] chunkKeys;
+    private final byte[] states;
+    private final int lookahead;
+    private final MiningMetrics metrics;
+    private int current;
+
+    /**
+     * @param chunkKeys chunk columns packed with {@link BlockCursor#pack}, in the order they will be entered
+     * @param tickets tickets of the world the chunks are held with, or null to load chunks without holding them
+     * @param lookahead chunks to load beyond the one being worked on
+     */
+    public ChunkPrefetcher(World world, ChunkTickets tickets, long[] chunkKeys, int lookahead, MiningMetrics metrics) {
+        this.world = world;
+        this.tickets = tickets;
+        this.chunkKeys = chunkKeys;
+        this.states = new byte[chunkKeys.length];
+        this.lookahead = lookahead;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Move the worker to a chunk and check if it is loaded
+     * Chunks that are not in the list are reported as ready and left alone.
+     */
+    public boolean enter(int chunkX, int chunkZ) {
+        long key = BlockCursor.pack(chunkX, 0, chunkZ);
+        int index = current;
+        while (index < chunkKeys.length && chunkKeys[index] != key) {
+            index++;
+        }
+        if (index == chunkKeys.length) {
+            return true;
+        }
+
+        if (index != current || states[index] == IDLE) {
+            moveTo(index);
+        }
+        return isReady(index);
+    }
+
+    /**
+     * Release every ticket this prefetcher holds
+     */
+    public void releaseAll() {
+        for (int i = 0; i < chunkKeys.length; i++) {
+            release(i);
+        }
+        current = chunkKeys.length;
+    }
+
+    /**
+     * Get the number of chunks currently held by a ticket
+     */
+    public int getHeldCount() {
+        int held = 0;
+        for (byte state : states) {
+            if (state == LOADED) {
+                held++;
+            }
+        }
+        return held;
+    }
+
+    private void moveTo(int index) {
+        for (int i = current; i < index; i++) {
+            release(i);
+        }
+        current = index;
+        int end = Math.min(chunkKeys.length, index + 1 + lookahead);
+        for (int i = index; i < end; i++) {
+            request(i);
+        }
+    }
+
+    private boolean isReady(int index) {
+        byte state = states[index];
+        // A failed async load falls back to a synchronous load on first access
+        return state == LOADED || state == FAILED;
+    }
+
+    private void request(int index) {
+        if (states[index] != IDLE) {
+            return;
+        }
+
+        int chunkX = BlockCursor.unpackX(chunkKeys[index]);
+        int chunkZ = BlockCursor.unpackZ(chunkKeys[index]);
+        if (world.isChunkLoaded(chunkX, chunkZ)) {
+            hold(index);
+            return;
+        }
+
+        states[index] = REQUESTED;
+        metrics.recordChunkLoad();
+        world.getChunkAtAsync(chunkX, chunkZ).whenComplete((chunk, error) -> {
+            if (states[index] != REQUESTED) {
+                return; // Released before the load finished
+            }
+            if (error != null || chunk == null) {
+                states[index] = FAILED;
+            } else {
+                hold(index);
+            }
+        });
+    }
+
+    private void hold(int index) {
+        if (tickets != null) {
+            tickets.add(BlockCursor.unpackX(chunkKeys[index]), BlockCursor.unpackZ(chunkKeys[index]));
+        }
+        states[index] = LOADED;
+    }
+
+    private void release(int index) {
+        if (states[index] == LOADED && tickets != null) {
+            tickets.remove(BlockCursor.unpackX(chunkKeys[index]), BlockCursor.unpackZ(chunkKeys[index]));
+        }
+        states[index] = RELEASED;
+    }
+}
@@ -0,0 +1,55 @@
+package com.duyanhggg.areaminer.mining;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+
+import java.util.Comparator;
+
+/**
+ * ChunkTickets - Keeps chunks loaded with a vanilla chunk ticket while a job works on them
+ * Tickets go to the server world whose dimension key matches the Bukkit world's key.
+ * Main thread only.
+ */
+public class ChunkTickets {
+
+    private static final ChunkTicketType<ChunkPos> TICKET_TYPE =
+        ChunkTicketType.create("area_miner", Comparator.comparingLong(ChunkPos::toLong));
+    // Neighbours stay loaded too, so block updates and lighting at the chunk edge do not stall
+    private static final int TICKET_RADIUS = 1;
+
+    private final ServerChunkManager chunkManager;
+
+    private ChunkTickets(ServerChunkManager chunkManager) {
+        this.chunkManager = chunkManager;
+    }
+
+    /**
+     * Get the tickets of a world, or null if the server has no matching world
+     */
+    public static ChunkTickets forWorld(MinecraftServer server, World world) {
+        if (server == null) {
+            return null;
+        }
+        NamespacedKey key = world.getKey();
+        ServerWorld serverWorld = server.getWorld(RegistryKey.of(RegistryKeys.WORLD, Identifier.of(key.getNamespace(), key.getKey())));
+        return serverWorld == null ? null : new ChunkTickets(serverWorld.getChunkManager());
+    }
+
+    public void add(int chunkX, int chunkZ) {
+        ChunkPos pos = new ChunkPos(chunkX, chunkZ);
+        chunkManager.addTicket(TICKET_TYPE, pos, TICKET_RADIUS, pos);
+    }
+
+    public void remove(int chunkX, int chunkZ) {
+        ChunkPos pos = new ChunkPos(chunkX, chunkZ);
+        chunkManager.removeTicket(TICKET_TYPE, pos, TICKET_RADIUS, pos);
+    }
+}
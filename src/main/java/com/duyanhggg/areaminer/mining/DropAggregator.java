@@ -0,0 +1,100 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DropAggregator - Merges the drops of many broken blocks into a few item stacks
+ * Plain items are counted per material in an array indexed by ordinal; items with
+ * metadata are merged with similar ones. Draining splits the totals into stacks of
+ * at most the item's maximum stack size.
+ * Main thread only.
+ */
+public class DropAggregator {
+
+    private final long[] plainCounts = new long[Material.values().length];
+    private final Map<ItemStack, Long> metaCounts = new LinkedHashMap<>();
+    private long itemCount;
+
+    /**
+     * Add the drops of one block
+     */
+    public void add(Collection<ItemStack> drops) {
+        if (drops == null) {
+            return;
+        }
+        for (ItemStack drop : drops) {
+            add(drop);
+        }
+    }
+
+    /**
+     * Add one stack of items
+     */
+    public void add(ItemStack drop) {
+        if (drop == null || drop.getType().isAir() || drop.getAmount() <= 0) {
+            return;
+        }
+        if (drop.hasItemMeta()) {
+            // Keyed by a single item, so equals and hashCode compare everything but the amount
+            ItemStack key = drop.clone();
+            key.setAmount(1);
+            metaCounts.merge(key, (long) drop.getAmount(), Long::sum);
+        } else {
+            plainCounts[drop.getType().ordinal()] += drop.getAmount();
+        }
+        itemCount += drop.getAmount();
+    }
+
+    /**
+     * Take all collected items as full stacks, leaving the aggregator empty
+     */
+    public List<ItemStack> drain() {
+        List<ItemStack> stacks = new ArrayList<>();
+        if (itemCount == 0) {
+            return stacks;
+        }
+
+        Material[] materials = Material.values();
+        for (int ordinal = 0; ordinal < plainCounts.length; ordinal++) {
+            if (plainCounts[ordinal] != 0) {
+                split(new ItemStack(materials[ordinal]), plainCounts[ordinal], stacks);
+                plainCounts[ordinal] = 0;
+            }
+        }
+        for (Map.Entry<ItemStack, Long> entry : metaCounts.entrySet()) {
+            split(entry.getKey(), entry.getValue(), stacks);
+        }
+        metaCounts.clear();
+        itemCount = 0;
+        return stacks;
+    }
+
+    private static void split(ItemStack template, long count, List<ItemStack> out) {
+        int maxStack = Math.max(1, template.getMaxStackSize());
+        while (count > 0) {
+            int amount = (int) Math.min(count, maxStack);
+            ItemStack stack = template.clone();
+            stack.setAmount(amount);
+            out.add(stack);
+            count -= amount;
+        }
+    }
+
+    public boolean isEmpty() {
+        return itemCount == 0;
+    }
+
+    /**
+     * Get the number of items collected and not yet drained
+     */
+    public long getItemCount() {
+        return itemCount;
+    }
+}
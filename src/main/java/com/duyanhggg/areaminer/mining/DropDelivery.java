@@ -0,0 +1,102 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DropDelivery - Hands a job's collected drops to its target a few stacks at a time
+ * What fits goes into the player's inventory or the container; at most a fixed number of
+ * overflow stacks is spawned as item entities per call and the rest waits for the next one.
+ * Outlives its session, so drops left when a job ends keep arriving over later ticks
+ * instead of flooding the world at once. Main thread only.
+ */
+public class DropDelivery {
+
+    private final UUID playerUuid;
+    private final DropTarget target;
+    private final Location container;
+    private final Location fallback;
+    private final int maxEntitiesPerCall;
+    private final DropAggregator drops;
+
+    /**
+     * @param container container block for {@link DropTarget#CONTAINER}, or null
+     * @param fallback where overflow spills when the player is offline and there is no container
+     */
+    public DropDelivery(UUID playerUuid, DropTarget target, Location container, Location fallback,
+                        int maxEntitiesPerCall, DropAggregator drops) {
+        this.playerUuid = playerUuid;
+        this.target = target;
+        this.container = container;
+        this.fallback = fallback;
+        this.maxEntitiesPerCall = maxEntitiesPerCall;
+        this.drops = drops;
+    }
+
+    /**
+     * Deliver what the target takes and spill up to the per-call number of stacks
+     * Returns true once nothing is left to deliver.
+     */
+    public boolean deliver() {
+        if (drops.isEmpty()) {
+            return true;
+        }
+
+        List<ItemStack> stacks = drops.drain();
+        Location spill = null;
+        Inventory inventory = null;
+        if (target == DropTarget.CONTAINER && container != null && container.getWorld() != null) {
+            BlockState state = container.getBlock().getState();
+            if (state instanceof Container holder) {
+                inventory = holder.getInventory();
+            }
+            spill = container.clone().add(0.5, 1.0, 0.5);
+        } else {
+            Player player = Bukkit.getPlayer(playerUuid);
+            if (player != null && player.isOnline()) {
+                inventory = player.getInventory();
+                spill = player.getLocation();
+            }
+        }
+        if (spill == null) {
+            spill = fallback;
+        }
+
+        Collection<ItemStack> overflow = inventory == null
+            ? stacks : inventory.addItem(stacks.toArray(new ItemStack[0])).values();
+        World world = spill.getWorld();
+        int spawned = 0;
+        for (ItemStack stack : overflow) {
+            if (world != null && spawned < maxEntitiesPerCall) {
+                world.dropItem(spill, stack);
+                spawned++;
+            } else {
+                drops.add(stack);
+            }
+        }
+        return drops.isEmpty();
+    }
+
+    /**
+     * Drop whatever is left undelivered; returns the number of items discarded
+     */
+    public long discard() {
+        long items = drops.getItemCount();
+        drops.drain();
+        return items;
+    }
+
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+}
@@ -0,0 +1,21 @@
+package com.duyanhggg.areaminer.mining;
+
+/**
+ * DropTarget - Where a session delivers the items of the blocks it clears
+ */
+public enum DropTarget {
+    /**
+     * Discard drops, clearing blocks without producing items
+     */
+    NONE,
+
+    /**
+     * Put drops into the player's inventory, spilling what does not fit at their feet
+     */
+    INVENTORY,
+
+    /**
+     * Put drops into a container block, spilling what does not fit on top of it
+     */
+    CONTAINER
+}
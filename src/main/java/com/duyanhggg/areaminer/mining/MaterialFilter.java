@@ -0,0 +1,283 @@
+package com.duyanhggg.areaminer.mining;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.command.argument.BlockArgumentParser;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.block.data.BlockData;
+
+import java.util.*;
+
+/**
+ * MaterialFilter - Precompiled, immutable set of mineable materials
+ * Backed by a bitset indexed by material ordinal so a check is a single array read;
+ * safe to share between the main thread and planner threads
+ */
+public final class MaterialFilter {
+
+    /** Filter that matches nothing */
+    public static final MaterialFilter NONE = new MaterialFilter(new long[0]);
+
+    private static final Map<String, List<Tag<Material>>> GROUPS = Map.of(
+        "ores", List.of(
+            Tag.COAL_ORES, Tag.IRON_ORES, Tag.COPPER_ORES, Tag.GOLD_ORES,
+            Tag.REDSTONE_ORES, Tag.LAPIS_ORES, Tag.DIAMOND_ORES, Tag.EMERALD_ORES
+        ),
+        "stone", List.of(Tag.BASE_STONE_OVERWORLD, Tag.BASE_STONE_NETHER),
+        "dirt", List.of(Tag.DIRT),
+        "sand", List.of(Tag.SAND),
+        "logs", List.of(Tag.LOGS),
+        "leaves", List.of(Tag.LEAVES)
+    );
+
+    private static final Map<String, List<Material>> GROUP_EXTRAS = Map.of(
+        "ores", List.of(Material.NETHER_QUARTZ_ORE, Material.ANCIENT_DEBRIS),
+        "stone", List.of(Material.COBBLESTONE, Material.END_STONE, Material.GRAVEL)
+    );
+
+    /**
+     * Most block states worth asking a palette about; wider filters are left to per-block checks
+     * A probe is an identity check per palette entry, far cheaper than a block read, so even
+     * filters of many-state blocks like leaves stay well below the cost of reading a chunk.
+     */
+    private static final int MAX_PALETTE_PROBES = 512;
+
+    private final long[] bits;
+    private final int size;
+    private volatile BlockData[] paletteProbes;
+    private volatile boolean paletteProbesResolved;
+
+    private MaterialFilter(long[] bits) {
+        this.bits = bits;
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        this.size = count;
+    }
+
+    /**
+     * Build a filter matching exactly the given materials; air never matches
+     */
+    public static MaterialFilter of(Collection<Material> materials) {
+        if (materials.isEmpty()) {
+            return NONE;
+        }
+        long[] bits = new long[wordCount()];
+        for (Material material : materials) {
+            set(bits, material);
+        }
+        clearAir(bits);
+        return new MaterialFilter(bits);
+    }
+
+    /**
+     * Build a filter from configuration entries
+     * Entries are material names ("diamond_ore"), built-in groups ("#ores", "#stone")
+     * or block tags ("#minecraft:base_stone_overworld"); an empty whitelist allows every block
+     */
+    public static MaterialFilter parse(Collection<String> whitelist, Collection<String> blacklist) {
+        long[] bits = new long[wordCount()];
+        if (whitelist.isEmpty()) {
+            for (Material material : Material.values()) {
+                if (material.isBlock()) {
+                    set(bits, material);
+                }
+            }
+        } else {
+            for (String entry : whitelist) {
+                resolve(entry).forEach(material -> set(bits, material));
+            }
+        }
+
+        for (String entry : blacklist) {
+            resolve(entry).forEach(material -> bits[material.ordinal() >> 6] &= ~(1L << material.ordinal()));
+        }
+
+        clearAir(bits);
+        return new MaterialFilter(bits);
+    }
+
+    /**
+     * Resolve one configuration entry to materials; unknown entries resolve to nothing
+     */
+    private static Collection<Material> resolve(String entry) {
+        String name = entry.trim().toLowerCase(Locale.ROOT);
+        if (!name.startsWith("#")) {
+            Material material = Material.matchMaterial(name);
+            if (material == null) {
+                Bukkit.getLogger().warning("Unknown material in mining filter: " + entry);
+                return List.of();
+            }
+            return List.of(material);
+        }
+
+        String group = name.substring(1);
+        List<Tag<Material>> tags = GROUPS.get(group);
+        if (tags != null) {
+            Set<Material> materials = EnumSet.noneOf(Material.class);
+            tags.forEach(tag -> materials.addAll(tag.getValues()));
+            materials.addAll(GROUP_EXTRAS.getOrDefault(group, List.of()));
+            return materials;
+        }
+
+        NamespacedKey key = NamespacedKey.fromString(group);
+        Tag<Material> tag = key == null ? null : Bukkit.getTag(Tag.REGISTRY_BLOCKS, key, Material.class);
+        if (tag == null) {
+            Bukkit.getLogger().warning("Unknown material group in mining filter: " + entry);
+            return List.of();
+        }
+        return tag.getValues();
+    }
+
+    /**
+     * Check if a material is mineable
+     */
+    public boolean matches(Material material) {
+        int ordinal = material.ordinal();
+        int word = ordinal >> 6;
+        return word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Get the block states a palette must hold for this filter to match anything there
+     * Palettes hold states, not blocks, so every state of every matched block is a probe;
+     * returns null if that is too many to be worth probing.
+     * Resolved once and cached; call it from the main thread the first time.
+     */
+    public BlockData[] getPaletteProbes() {
+        if (!paletteProbesResolved) {
+            paletteProbes = resolvePaletteProbes();
+            paletteProbesResolved = true;
+        }
+        return paletteProbes;
+    }
+
+    private BlockData[] resolvePaletteProbes() {
+        if (size > MAX_PALETTE_PROBES) {
+            return null;
+        }
+        List<BlockData> probes = new ArrayList<>(size);
+        for (Material material : Material.values()) {
+            if (!matches(material)) {
+                continue;
+            }
+            if (!material.isBlock()) {
+                continue; // Can never be placed, so never in a palette
+            }
+            NamespacedKey key = material.getKey();
+            Block block = Registries.BLOCK.get(Identifier.of(key.getNamespace(), key.getKey()));
+            for (BlockState state : block.getStateManager().getStates()) {
+                if (probes.size() == MAX_PALETTE_PROBES) {
+                    return null;
+                }
+                probes.add(Bukkit.createBlockData(BlockArgumentParser.stringifyBlockState(state)));
+            }
+        }
+        return probes.toArray(new BlockData[0]);
+    }
+
+    /**
+     * Check if a chunk snapshot may hold a block matched by probes from {@link #getPaletteProbes()}
+     * Only section palettes are read, so a chunk without targets costs no block reads.
+     */
+    public static boolean mayContain(ChunkSnapshot snapshot, BlockData[] probes) {
+        if (probes == null) {
+            return true;
+        }
+        for (BlockData probe : probes) {
+            if (snapshot.contains(probe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a loaded chunk may hold a block matched by probes from {@link #getPaletteProbes()}
+     */
+    public static boolean mayContain(Chunk chunk, BlockData[] probes) {
+        if (probes == null) {
+            return true;
+        }
+        for (BlockData probe : probes) {
+            if (chunk.contains(probe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the filter can never match
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the number of materials this filter matches
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the matched materials as a set
+     */
+    public Set<Material> toSet() {
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        for (Material material : Material.values()) {
+            if (matches(material)) {
+                materials.add(material);
+            }
+        }
+        return materials;
+    }
+
+    private static int wordCount() {
+        return (Material.values().length + 63) >> 6;
+    }
+
+    private static void set(long[] bits, Material material) {
+        bits[material.ordinal() >> 6] |= 1L << material.ordinal();
+    }
+
+    private static void clearAir(long[] bits) {
+        for (Material air : List.of(Material.AIR, Material.CAVE_AIR, Material.VOID_AIR)) {
+            bits[air.ordinal() >> 6] &= ~(1L << air.ordinal());
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof MaterialFilter other)) return false;
+        return size == other.size && Arrays.equals(trim(bits), trim(other.bits));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(trim(bits));
+    }
+
+    private static long[] trim(long[] bits) {
+        int length = bits.length;
+        while (length > 0 && bits[length - 1] == 0) {
+            length--;
+        }
+        return length == bits.length ? bits : Arrays.copyOf(bits, length);
+    }
+
+    @Override
+    public String toString() {
+        return "MaterialFilter{materials=" + size + "}";
+    }
+}
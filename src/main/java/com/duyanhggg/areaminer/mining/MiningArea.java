@@ -8,7 +8,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * MiningArea represents a defined rectangular mining region in a Minecraft world.
@@ -28,6 +27,10 @@ public class MiningArea {
     private long lastModified;
     private Map<String, Object> metadata;
     
+    // Normalized bounds, replaced whenever a corner or the world changes
+    private BlockBox bounds;
+    private AreaIndex index;
+    
     /**
      * Constructor for creating a new MiningArea
      */
@@ -44,6 +47,7 @@ public class MiningArea {
         this.createdAt = System.currentTimeMillis();
         this.lastModified = System.currentTimeMillis();
         this.metadata = new HashMap<>();
+        recomputeBounds();
     }
     
     /**
@@ -88,7 +92,7 @@ public class MiningArea {
      */
     public void setWorld(World world) {
         this.world = world;
-        updateModificationTime();
+        boundsChanged();
     }
     
     /**
@@ -103,7 +107,7 @@ public class MiningArea {
      */
     public void setCornerOne(Location cornerOne) {
         this.cornerOne = cornerOne.clone();
-        updateModificationTime();
+        boundsChanged();
     }
     
     /**
@@ -118,7 +122,7 @@ public class MiningArea {
      */
     public void setCornerTwo(Location cornerTwo) {
         this.cornerTwo = cornerTwo.clone();
-        updateModificationTime();
+        boundsChanged();
     }
     
     /**
@@ -207,6 +211,79 @@ public class MiningArea {
         this.lastModified = System.currentTimeMillis();
     }
     
+    /**
+     * Recompute the cached bounds and reindex after a corner or world change
+     */
+    private void boundsChanged() {
+        recomputeBounds();
+        updateModificationTime();
+        if (index != null) {
+            index.update(this);
+        }
+    }
+    
+    private void recomputeBounds() {
+        this.bounds = BlockBox.of(
+            cornerOne.getBlockX(), cornerOne.getBlockY(), cornerOne.getBlockZ(),
+            cornerTwo.getBlockX(), cornerTwo.getBlockY(), cornerTwo.getBlockZ());
+    }
+    
+    /**
+     * Get the index this area is registered in, if any
+     */
+    AreaIndex getIndex() {
+        return index;
+    }
+    
+    void setIndex(AreaIndex index) {
+        this.index = index;
+    }
+    
+    /**
+     * Get the normalized bounding box; immutable, so it can be kept and shared
+     */
+    public BlockBox getBounds() {
+        return bounds;
+    }
+    
+    /**
+     * Check if a block coordinate is within this mining area, ignoring the world
+     */
+    public boolean contains(int x, int y, int z) {
+        return bounds.contains(x, y, z);
+    }
+    
+    /**
+     * Check if this mining area shares a block with a box, ignoring the world
+     */
+    public boolean intersects(BlockBox box) {
+        return bounds.intersects(box);
+    }
+    
+    public int minX() {
+        return bounds.minX();
+    }
+    
+    public int minY() {
+        return bounds.minY();
+    }
+    
+    public int minZ() {
+        return bounds.minZ();
+    }
+    
+    public int maxX() {
+        return bounds.maxX();
+    }
+    
+    public int maxY() {
+        return bounds.maxY();
+    }
+    
+    public int maxZ() {
+        return bounds.maxZ();
+    }
+    
     /**
      * Get metadata value by key
      */
@@ -253,18 +330,7 @@ public class MiningArea {
             return false;
         }
         
-        int minX = Math.min(cornerOne.getBlockX(), cornerTwo.getBlockX());
-        int maxX = Math.max(cornerOne.getBlockX(), cornerTwo.getBlockX());
-        int minY = Math.min(cornerOne.getBlockY(), cornerTwo.getBlockY());
-        int maxY = Math.max(cornerOne.getBlockY(), cornerTwo.getBlockY());
-        int minZ = Math.min(cornerOne.getBlockZ(), cornerTwo.getBlockZ());
-        int maxZ = Math.max(cornerOne.getBlockZ(), cornerTwo.getBlockZ());
-        
-        int x = location.getBlockX();
-        int y = location.getBlockY();
-        int z = location.getBlockZ();
-        
-        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        return bounds.contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
     
     /**
@@ -281,8 +347,46 @@ public class MiningArea {
         return player != null && isLocationWithin(player.getLocation());
     }
     
+    /**
+     * Visit every block coordinate in this mining area in chunk-section order
+     * Runs in constant memory; returns false if the visitor stopped the walk early.
+     */
+    public boolean forEachBlock(BlockVisitor visitor) {
+        return new BlockSpliterator(bounds).visit(visitor);
+    }
+    
+    /**
+     * Get a spliterator over the packed positions of this mining area, see {@link BlockCursor#pack}
+     * It splits by whole chunk sections, so {@code StreamSupport.longStream(spliterator, true)}
+     * can hand sections to parallel workers. The bounds are captured when this is called.
+     */
+    public Spliterator.OfLong blockSpliterator() {
+        return new BlockSpliterator(bounds);
+    }
+    
+    /**
+     * Count the blocks in this mining area that match a material filter
+     * Reads the live world, so call it on the main thread.
+     */
+    public long countMatching(MaterialFilter filter) {
+        World world = this.world;
+        if (world == null || filter.isEmpty()) {
+            return 0L;
+        }
+        
+        long[] count = new long[1];
+        forEachBlock((x, y, z) -> {
+            if (filter.matches(world.getType(x, y, z))) {
+                count[0]++;
+            }
+            return true;
+        });
+        return count[0];
+    }
+    
     /**
      * Get all blocks within this mining area
+     * Holds one Block per coordinate; prefer {@link #forEachBlock} for anything but small areas.
      */
     public List<Block> getAllBlocks() {
         List<Block> blocks = new ArrayList<>();
@@ -291,90 +395,72 @@ public class MiningArea {
             return blocks;
         }
         
-        int minX = Math.min(cornerOne.getBlockX(), cornerTwo.getBlockX());
-        int maxX = Math.max(cornerOne.getBlockX(), cornerTwo.getBlockX());
-        int minY = Math.min(cornerOne.getBlockY(), cornerTwo.getBlockY());
-        int maxY = Math.max(cornerOne.getBlockY(), cornerTwo.getBlockY());
-        int minZ = Math.min(cornerOne.getBlockZ(), cornerTwo.getBlockZ());
-        int maxZ = Math.max(cornerOne.getBlockZ(), cornerTwo.getBlockZ());
-        
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    blocks.add(world.getBlockAt(x, y, z));
-                }
-            }
-        }
-        
+        forEachBlock((x, y, z) -> blocks.add(world.getBlockAt(x, y, z)));
         return blocks;
     }
     
     /**
      * Get blocks of a specific type within this mining area
+     * Accepts a material name or a group such as "#ores"
      */
     public List<Block> getBlocksByType(String materialType) {
-        if (world == null) {
-            return new ArrayList<>();
+        return getBlocksMatching(MaterialFilter.parse(List.of(materialType), List.of()));
+    }
+    
+    /**
+     * Get blocks within this mining area that match a material filter
+     */
+    public List<Block> getBlocksMatching(MaterialFilter filter) {
+        List<Block> blocks = new ArrayList<>();
+        
+        if (world == null || filter.isEmpty()) {
+            return blocks;
         }
         
-        return getAllBlocks().stream()
-                .filter(block -> block.getType().name().equalsIgnoreCase(materialType))
-                .collect(Collectors.toList());
+        // Read types directly so only matching blocks get a Block handle
+        forEachBlock((x, y, z) -> {
+            if (filter.matches(world.getType(x, y, z))) {
+                blocks.add(world.getBlockAt(x, y, z));
+            }
+            return true;
+        });
+        return blocks;
     }
     
     /**
      * Get the volume of this mining area in cubic blocks
      */
     public long getVolume() {
-        int width = Math.abs(cornerTwo.getBlockX() - cornerOne.getBlockX()) + 1;
-        int height = Math.abs(cornerTwo.getBlockY() - cornerOne.getBlockY()) + 1;
-        int depth = Math.abs(cornerTwo.getBlockZ() - cornerOne.getBlockZ()) + 1;
-        
-        return (long) width * height * depth;
+        return bounds.volume();
     }
     
     /**
      * Get the center location of this mining area
      */
     public Location getCenter() {
-        int centerX = (cornerOne.getBlockX() + cornerTwo.getBlockX()) / 2;
-        int centerY = (cornerOne.getBlockY() + cornerTwo.getBlockY()) / 2;
-        int centerZ = (cornerOne.getBlockZ() + cornerTwo.getBlockZ()) / 2;
-        
-        return new Location(world, centerX, centerY, centerZ);
+        BlockBox box = bounds;
+        return new Location(world, (box.minX() + box.maxX()) / 2, (box.minY() + box.maxY()) / 2, (box.minZ() + box.maxZ()) / 2);
     }
     
     /**
      * Get the minimum corner (with smallest coordinates)
      */
     public Location getMinimumCorner() {
-        int minX = Math.min(cornerOne.getBlockX(), cornerTwo.getBlockX());
-        int minY = Math.min(cornerOne.getBlockY(), cornerTwo.getBlockY());
-        int minZ = Math.min(cornerOne.getBlockZ(), cornerTwo.getBlockZ());
-        
-        return new Location(world, minX, minY, minZ);
+        return new Location(world, bounds.minX(), bounds.minY(), bounds.minZ());
     }
     
     /**
      * Get the maximum corner (with largest coordinates)
      */
     public Location getMaximumCorner() {
-        int maxX = Math.max(cornerOne.getBlockX(), cornerTwo.getBlockX());
-        int maxY = Math.max(cornerOne.getBlockY(), cornerTwo.getBlockY());
-        int maxZ = Math.max(cornerOne.getBlockZ(), cornerTwo.getBlockZ());
-        
-        return new Location(world, maxX, maxY, maxZ);
+        return new Location(world, bounds.maxX(), bounds.maxY(), bounds.maxZ());
     }
     
     /**
      * Get the size vector of this mining area
      */
     public Vector getSize() {
-        int width = Math.abs(cornerTwo.getBlockX() - cornerOne.getBlockX()) + 1;
-        int height = Math.abs(cornerTwo.getBlockY() - cornerOne.getBlockY()) + 1;
-        int depth = Math.abs(cornerTwo.getBlockZ() - cornerOne.getBlockZ()) + 1;
-        
-        return new Vector(width, height, depth);
+        return new Vector(bounds.sizeX(), bounds.sizeY(), bounds.sizeZ());
     }
     
     /**
@@ -389,7 +475,7 @@ public class MiningArea {
         
         this.cornerOne = min;
         this.cornerTwo = max;
-        updateModificationTime();
+        boundsChanged();
     }
     
     /**
@@ -405,7 +491,7 @@ public class MiningArea {
     public void move(Vector offset) {
         this.cornerOne.add(offset);
         this.cornerTwo.add(offset);
-        updateModificationTime();
+        boundsChanged();
     }
     
     /**
@@ -415,18 +501,7 @@ public class MiningArea {
         if (other == null || !this.world.equals(other.world)) {
             return false;
         }
-        
-        Location thisMin = getMinimumCorner();
-        Location thisMax = getMaximumCorner();
-        Location otherMin = other.getMinimumCorner();
-        Location otherMax = other.getMaximumCorner();
-        
-        return thisMin.getBlockX() <= otherMax.getBlockX() &&
-                thisMax.getBlockX() >= otherMin.getBlockX() &&
-                thisMin.getBlockY() <= otherMax.getBlockY() &&
-                thisMax.getBlockY() >= otherMin.getBlockY() &&
-                thisMin.getBlockZ() <= otherMax.getBlockZ() &&
-                thisMax.getBlockZ() >= otherMin.getBlockZ();
+        return bounds.intersects(other.bounds);
     }
     
     /**
@@ -1,14 +1,31 @@
 package com.duyanhggg.areaminer.mining;
 
+import com.duyanhggg.areaminer.metrics.MiningMetrics;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.inventory.ItemStack;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * MiningController - Manages mining sessions and block extraction
@@ -16,27 +33,132 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class MiningController {
     
+    /** Most blocks one session may cover, whether started as a single box or a batch */
+    public static final long MAX_SESSION_VOLUME = 1_000_000L;
+    
     private static MiningController instance;
-    private final Map<UUID, MiningSession> activeSessions;
-    private final BukkitScheduler scheduler;
-    private final int maxSessionDuration; // in ticks
-    private final int blockBatchSize;
+    private final SessionRegistry activeSessions;
+    private final TickBudget tickBudget;
+    private final TimerWheel<MiningSession> timeouts;
+    private int defaultSessionTimeout; // in ticks
+    private int defaultIdleTimeout; // in ticks
+    private int defaultPauseTimeout; // in ticks
+    private final int clockCheckInterval;
     private final int maxBlocksPerSession;
+    private final int maxBlocksPerTick;
+    private final int blocksPerWeight;
+    private final Map<UUID, WorldQueue> worldQueues;
+    private final List<WorldQueue> tickQueues;
+    private BlockData air;
+    private ForkJoinPool plannerPool;
+    private ScheduledExecutorService journalFlusher;
+    private final int checkpointInterval; // in ticks
+    private final int prefetchDistance; // in chunks
+    private final int maxDropEntities; // per session per tick
+    private final Map<Integer, MaterialFilter> filters;
+    private final UndoStore undoStore;
+    private final List<RestoreTask> restoreTasks;
+    private final List<DropDelivery> dropBacklog;
+    private final MiningMetrics metrics;
+    private Path journalDirectory;
+    private MinecraftServer server;
+    private int worldRotation;
+    private boolean ticking;
+    private long tickCount;
     
-    private MiningController(BukkitScheduler scheduler) {
-        this.activeSessions = new ConcurrentHashMap<>();
-        this.scheduler = scheduler;
-        this.maxSessionDuration = 20 * 60 * 60; // 60 minutes in ticks
-        this.blockBatchSize = 100; // Process blocks in batches
+    MiningController() {
+        this.activeSessions = new SessionRegistry();
+        this.tickBudget = TickBudget.defaults();
+        this.timeouts = new TimerWheel<>();
+        this.defaultSessionTimeout = 20 * 60 * 60; // 60 minutes in ticks
+        this.defaultIdleTimeout = 20 * 60 * 5; // 5 minutes without progress
+        this.defaultPauseTimeout = 20 * 60 * 10; // 10 minutes paused
+        this.clockCheckInterval = 64; // Blocks scanned between deadline checks
         this.maxBlocksPerSession = 10000; // Maximum blocks per session
+        this.maxBlocksPerTick = 2000; // Global cap across all sessions
+        this.blocksPerWeight = 64; // Blocks granted per unit of session weight each tick
+        this.worldQueues = new LinkedHashMap<>();
+        this.tickQueues = new ArrayList<>();
+        this.checkpointInterval = 20; // Checkpoint each running session once per second
+        this.metrics = new MiningMetrics();
+        this.prefetchDistance = 2; // Chunks loaded ahead of the one being worked on
+        this.maxDropEntities = 8; // Overflow stacks spawned per session each tick; the rest waits
+        this.filters = new ConcurrentHashMap<>();
+        registerDefaultFilters();
+        // Keep the last 5 jobs per player; spill snapshots to disk past 64 MiB in memory
+        this.undoStore = new UndoStore(Paths.get("area-miner", "undo"), 5, 64L * 1024 * 1024);
+        this.undoStore.purgeDirectory();
+        this.restoreTasks = new ArrayList<>();
+        this.dropBacklog = new ArrayList<>();
+        this.journalDirectory = Paths.get("area-miner", "journal");
+        startWorkers();
+    }
+    
+    /**
+     * Start the planner pool and the journal flusher
+     * Called again when a server starts after a previous one stopped them, as integrated servers do.
+     */
+    private void startWorkers() {
+        this.plannerPool = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("AreaMiner-Planner-" + thread.getPoolIndex());
+                return thread;
+            },
+            null,
+            false
+        );
+        this.journalFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AreaMiner-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Disk syncs are batched off the main thread; checkpoints themselves are memory writes
+        this.journalFlusher.scheduleWithFixedDelay(this::flushJournals, 2L, 2L, TimeUnit.SECONDS);
     }
     
     /**
-     * Get singleton instance of MiningController
+     * Stop the planner pool and the journal flusher, waiting briefly for running work
      */
-    public static MiningController getInstance(BukkitScheduler scheduler) {
+    private void stopWorkers() {
+        journalFlusher.shutdown();
+        plannerPool.shutdownNow();
+        try {
+            journalFlusher.awaitTermination(5L, TimeUnit.SECONDS);
+            plannerPool.awaitTermination(5L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Restart the workers if a previous server stopped them, then resume journaled sessions
+     * Runs once the server has started, so every world a journal may refer to is loaded.
+     */
+    private void onServerStarted(MinecraftServer server) {
+        this.server = server;
+        if (plannerPool.isShutdown()) {
+            startWorkers();
+        }
+        int resumed = resumeSessions();
+        if (resumed > 0) {
+            Bukkit.getLogger().info("Resumed " + resumed + " mining sessions from their journals");
+        }
+    }
+    
+    /**
+     * Create the singleton and hook it into the server lifecycle
+     * Mining runs at the end of every server tick; sessions left at shutdown keep their journals
+     * and resume once the server has started again.
+     */
+    public static synchronized MiningController initialize() {
         if (instance == null) {
-            instance = new MiningController(scheduler);
+            MiningController controller = new MiningController();
+            ServerTickEvents.END_SERVER_TICK.register(controller::onServerTick);
+            ServerLifecycleEvents.SERVER_STARTED.register(controller::onServerStarted);
+            ServerLifecycleEvents.SERVER_STOPPING.register(server -> controller.cleanupAll());
+            instance = controller;
         }
         return instance;
     }
@@ -46,17 +168,36 @@ public class MiningController {
      */
     public static MiningController getInstance() {
         if (instance == null) {
-            throw new IllegalStateException("MiningController not initialized. Call getInstance(scheduler) first.");
+            throw new IllegalStateException("MiningController not initialized. Call initialize() first.");
         }
         return instance;
     }
     
+    /**
+     * Filter ids clients may rely on; servers can add more with {@link #registerFilter}
+     */
+    private void registerDefaultFilters() {
+        filters.put(0, MaterialFilter.parse(List.of(), List.of()));
+        List<String> groups = List.of("#ores", "#stone", "#dirt", "#sand", "#logs", "#leaves");
+        for (int i = 0; i < groups.size(); i++) {
+            filters.put(i + 1, MaterialFilter.parse(List.of(groups.get(i)), List.of()));
+        }
+    }
+    
+    /**
+     * Get the global metrics; each session's own metrics roll up into these
+     */
+    public MiningMetrics getMetrics() {
+        return metrics;
+    }
+    
     /**
      * Create a new mining session for a player
      */
     public MiningSession createSession(Player player, Location corner1, Location corner2) {
-        if (activeSessions.containsKey(player.getUniqueId())) {
-            return activeSessions.get(player.getUniqueId());
+        MiningSession existing = activeSessions.get(player.getUniqueId());
+        if (existing != null) {
+            return existing;
         }
         
         MiningSession session = new MiningSession(
@@ -66,8 +207,13 @@ public class MiningController {
             corner2,
             System.currentTimeMillis()
         );
+        session.setMetrics(new MiningMetrics(metrics));
         
-        activeSessions.put(player.getUniqueId(), session);
+        existing = activeSessions.putIfAbsent(session);
+        if (existing != null) {
+            return existing;
+        }
+        armTimeouts(session);
         return session;
     }
     
@@ -82,10 +228,7 @@ public class MiningController {
      * Get active session for a player by name
      */
     public MiningSession getSession(String playerName) {
-        return activeSessions.values().stream()
-            .filter(session -> session.getPlayerName().equalsIgnoreCase(playerName))
-            .findFirst()
-            .orElse(null);
+        return activeSessions.getByName(playerName);
     }
     
     /**
@@ -94,6 +237,11 @@ public class MiningController {
     public void endSession(UUID playerUuid) {
         MiningSession session = activeSessions.remove(playerUuid);
         if (session != null) {
+            disarmTimeouts(session);
+            dequeue(session);
+            closeJournal(session, true);
+            finishSnapshot(session);
+            retireDrops(session);
             session.cleanup();
         }
     }
@@ -102,37 +250,39 @@ public class MiningController {
      * End a mining session by player name
      */
     public void endSession(String playerName) {
-        activeSessions.entrySet().removeIf(entry -> 
-            entry.getValue().getPlayerName().equalsIgnoreCase(playerName)
-        );
+        MiningSession session = activeSessions.getByName(playerName);
+        if (session != null) {
+            endSession(session.getPlayerUuid());
+        }
     }
     
     /**
      * Check if player has an active session
      */
     public boolean hasActiveSession(UUID playerUuid) {
-        return activeSessions.containsKey(playerUuid);
+        return activeSessions.contains(playerUuid);
     }
     
     /**
-     * Get all active sessions
+     * Get all active sessions as an immutable snapshot; nothing is copied per call
      */
-    public Collection<MiningSession> getAllActiveSessions() {
-        return new ArrayList<>(activeSessions.values());
+    public List<MiningSession> getAllActiveSessions() {
+        return activeSessions.snapshot();
     }
     
     /**
      * Build a list of mineable blocks within the specified region
      */
     public List<Block> buildBlockList(Location corner1, Location corner2, Set<Material> minableMaterials) {
-        return buildBlockList(corner1, corner2, minableMaterials, maxBlocksPerSession);
+        return buildBlockList(corner1, corner2, MaterialFilter.of(minableMaterials), maxBlocksPerSession);
     }
     
     /**
      * Build a list of mineable blocks within the specified region with block limit
+     * Prefer {@link #startMiningSession}, which streams blocks from a {@link BlockCursor}
      */
     public List<Block> buildBlockList(Location corner1, Location corner2, 
-                                      Set<Material> minableMaterials, int maxBlocks) {
+                                      MaterialFilter filter, int maxBlocks) {
         List<Block> blockList = new ArrayList<>();
         
         if (corner1.getWorld() == null || corner2.getWorld() == null) {
@@ -143,36 +293,41 @@ public class MiningController {
             return blockList;
         }
         
-        // Normalize coordinates
-        int minX = Math.min(corner1.getBlockX(), corner2.getBlockX());
-        int maxX = Math.max(corner1.getBlockX(), corner2.getBlockX());
-        int minY = Math.min(corner1.getBlockY(), corner2.getBlockY());
-        int maxY = Math.max(corner1.getBlockY(), corner2.getBlockY());
-        int minZ = Math.min(corner1.getBlockZ(), corner2.getBlockZ());
-        int maxZ = Math.max(corner1.getBlockZ(), corner2.getBlockZ());
+        World world = corner1.getWorld();
+        BlockCursor cursor = BlockCursor.between(corner1, corner2);
         
         // Calculate total volume
-        long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        long volume = cursor.getVolume();
         
-        if (volume > 1000000) { // 1 million blocks limit
+        if (volume > MAX_SESSION_VOLUME) {
             Bukkit.getLogger().warning("Area too large for mining: " + volume + " blocks");
             return blockList;
         }
         
-        // Iterate through blocks and collect mineable ones
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    if (blockList.size() >= maxBlocks) {
-                        return blockList;
-                    }
-                    
-                    Block block = corner1.getWorld().getBlockAt(x, y, z);
-                    
-                    if (isMineable(block, minableMaterials)) {
-                        blockList.add(block);
-                    }
-                }
+        // Walk the area section by section, only creating handles for matches
+        BlockData[] probes = filter.getPaletteProbes();
+        long column = BlockCursor.EXHAUSTED;
+        boolean skipColumn = false;
+        while (cursor.hasNext() && blockList.size() < maxBlocks) {
+            long packed = cursor.position();
+            int x = BlockCursor.unpackX(packed);
+            int y = BlockCursor.unpackY(packed);
+            int z = BlockCursor.unpackZ(packed);
+            
+            // Columns whose palettes hold no target state are skipped section by section, unread
+            long chunkKey = BlockCursor.pack(x >> 4, 0, z >> 4);
+            if (chunkKey != column) {
+                column = chunkKey;
+                skipColumn = probes != null && !MaterialFilter.mayContain(world.getChunkAt(x >> 4, z >> 4), probes);
+            }
+            if (skipColumn) {
+                cursor.skipSection();
+                continue;
+            }
+            
+            cursor.next();
+            if (isMineable(world, x, y, z, filter)) {
+                blockList.add(world.getBlockAt(x, y, z));
             }
         }
         
@@ -180,73 +335,824 @@ public class MiningController {
     }
     
     /**
-     * Check if a block is mineable based on material set
+     * Check if the block at a coordinate is mineable; a single type read and bitset lookup
+     */
+    boolean isMineable(World world, int x, int y, int z, MaterialFilter filter) {
+        return filter.matches(world.getType(x, y, z));
+    }
+    
+    /**
+     * Start mining blocks in a session asynchronously
+     */
+    public void startMiningSession(MiningSession session, Set<Material> minableMaterials) {
+        startMiningSession(session, MaterialFilter.of(minableMaterials));
+    }
+    
+    /**
+     * Start mining blocks in a session with a precompiled material filter
+     */
+    public void startMiningSession(MiningSession session, MaterialFilter filter) {
+        Player player = Bukkit.getPlayer(session.getPlayerUuid());
+        if (player == null) {
+            endSession(session.getPlayerUuid());
+            return;
+        }
+        
+        World world = session.getCorner1().getWorld();
+        if (world == null || !world.equals(session.getCorner2().getWorld())) {
+            endSession(session.getPlayerUuid());
+            return;
+        }
+        
+        // The area is scanned from chunk snapshots off-thread; the cursor only walks planned sections
+        BlockCursor cursor = BlockCursor.between(session.getCorner1(), session.getCorner2());
+        if (cursor.getVolume() > MAX_SESSION_VOLUME) {
+            Bukkit.getLogger().warning("Refusing to mine " + cursor.getVolume() + " blocks for " + player.getName()
+                + "; at most " + MAX_SESSION_VOLUME + " are allowed");
+            endSession(session.getPlayerUuid());
+            return;
+        }
+        session.setCursor(cursor);
+        session.setFilter(filter);
+        session.setPlanner(new MiningPlanner(world, cursor, filter));
+        session.setPrefetcher(createPrefetcher(world, session.getPlanner().getChunkKeys(), session));
+        if (session.getWeight() == 0) {
+            session.setWeight(weightFor(player));
+        }
+        session.setJournal(openJournal(session, world));
+        beginSnapshot(session, world);
+        configureDrops(session, player);
+        
+        enqueue(session);
+    }
+    
+    /**
+     * Start one job mining several boxes in order, e.g. a stripe or tunnel pattern
+     * Returns null if the player already has a session or the boxes are not in one loaded world.
+     */
+    public MiningSession startBatchSession(Player player, World world, List<BlockCursor> boxes, MaterialFilter filter) {
+        if (boxes.isEmpty() || world == null || activeSessions.contains(player.getUniqueId())) {
+            return null;
+        }
+        
+        BlockCursor first = boxes.get(0);
+        MiningSession session = createSession(player,
+            new Location(world, first.getMinX(), first.getMinY(), first.getMinZ()),
+            new Location(world, first.getMaxX(), first.getMaxY(), first.getMaxZ()));
+        for (int i = 1; i < boxes.size(); i++) {
+            session.addPendingBox(boxes.get(i));
+        }
+        startMiningSession(session, filter);
+        return activeSessions.get(player.getUniqueId()) == session ? session : null;
+    }
+    
+    /**
+     * Dry run of a batch: count what it would mine, in how many chunks and how fast, without mining
+     * Call on the main thread. Chunks are loaded asynchronously and never generated, snapshots
+     * are counted in parallel on the planner pool, and no block list or plan is built, so the
+     * cost is one pass over the target sections whatever the job size. The rate projected is
+     * what the player's session would be granted each tick, see {@link #projectedBlocksPerSecond}.
+     */
+    public CompletableFuture<MiningEstimate> estimate(Player player, World world, List<BlockCursor> boxes, MaterialFilter filter) {
+        long started = System.nanoTime();
+        MiningEstimator estimator = new MiningEstimator(boxes, filter, world.getMinHeight(), world.getMaxHeight());
+        long[] chunkKeys = estimator.getChunkKeys();
+    
+        CompletableFuture<?>[] counted = new CompletableFuture<?>[chunkKeys.length];
+        for (int i = 0; i < chunkKeys.length; i++) {
+            counted[i] = world.getChunkAtAsync(BlockCursor.unpackX(chunkKeys[i]), BlockCursor.unpackZ(chunkKeys[i]), false)
+                // Completes on the main thread, where snapshots must be taken
+                .thenApply(chunk -> chunk == null ? null : chunk.getChunkSnapshot(false, false, false))
+                .thenAcceptAsync(snapshot -> {
+                    if (snapshot != null) {
+                        estimator.count(snapshot);
+                    }
+                }, plannerPool);
+        }
+    
+        double blocksPerSecond = projectedBlocksPerSecond(player, world);
+        return CompletableFuture.allOf(counted).thenApply(done ->
+            estimator.finish(maxBlocksPerSession, blocksPerSecond, System.nanoTime() - started));
+    }
+    
+    /**
+     * Mining rate a new session of this player would get in a world
+     * Each tick grants it its weight's quantum, and the global tick cap is shared by weight
+     * with the sessions already queued in that world; whichever is lower bounds the rate.
+     */
+    private double projectedBlocksPerSecond(Player player, World world) {
+        int weight = weightFor(player);
+        WorldQueue queue = worldQueues.get(world.getUID());
+        int queuedWeight = queue == null ? 0 : queue.getTotalWeight();
+        double capShare = (double) maxBlocksPerTick * weight / (queuedWeight + weight);
+        return Math.min(weight * blocksPerWeight, capShare) * 20.0;
+    }
+    
+    /**
+     * Register a material filter that clients can select by id when starting a batch
+     */
+    public void registerFilter(int id, MaterialFilter filter) {
+        filters.put(id, Objects.requireNonNull(filter, "filter"));
+    }
+    
+    /**
+     * Get a registered filter, or null if the id is unknown
+     */
+    public MaterialFilter getFilter(int id) {
+        return filters.get(id);
+    }
+    
+    /**
+     * Start recording the blocks a session clears, unless its metadata turns undo off
+     * A job that hands out drops is recorded but marked, and undo refuses to go past it.
+     */
+    private void beginSnapshot(MiningSession session, World world) {
+        if (Boolean.FALSE.equals(session.getMetadata(MiningSession.METADATA_UNDO))) {
+            return;
+        }
+        RegionSnapshot snapshot = undoStore.begin(session.getPlayerUuid(), world.getUID());
+        if (dropTargetOf(session) != DropTarget.NONE) {
+            snapshot.markDropsDelivered();
+        }
+        session.setSnapshot(snapshot);
+    }
+    
+    /**
+     * Set up drop collection from the session's metadata
+     * Without a drop tool the player's main hand item at the start of the job is used,
+     * or no tool at all if the player is offline.
+     */
+    private void configureDrops(MiningSession session, Player player) {
+        DropTarget target = dropTargetOf(session);
+        if (target == DropTarget.NONE) {
+            session.setDrops(null);
+            return;
+        }
+        
+        Object tool = session.getMetadata(MiningSession.METADATA_DROP_TOOL);
+        if (tool instanceof ItemStack stack) {
+            session.setDropTool(stack.clone());
+        } else if (player != null) {
+            session.setDropTool(player.getInventory().getItemInMainHand().clone());
+        }
+        session.setDrops(new DropAggregator());
+    }
+    
+    private static DropTarget dropTargetOf(MiningSession session) {
+        Object value = session.getMetadata(MiningSession.METADATA_DROPS);
+        if (value instanceof DropTarget target) {
+            return target;
+        }
+        if (value instanceof String name) {
+            try {
+                return DropTarget.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                Bukkit.getLogger().warning("Unknown drop target '" + name + "' for " + session.getPlayerName());
+            }
+        }
+        return session.getMetadata(MiningSession.METADATA_DROP_CONTAINER) instanceof Location
+            ? DropTarget.CONTAINER : DropTarget.INVENTORY;
+    }
+    
+    /**
+     * Hand a session's collected drops to its target and spill the overflow as item entities
+     * At most a few overflow stacks are spawned per tick and the rest is kept for the next one,
+     * so a full inventory cannot flood the world with entities.
+     */
+    private void deliverDrops(MiningSession session) {
+        DropDelivery delivery = deliveryOf(session);
+        if (delivery != null) {
+            delivery.deliver();
+        }
+    }
+    
+    /**
+     * Take the drops away from a session that is ending; what is left keeps arriving over later ticks
      */
-    private boolean isMineable(Block block, Set<Material> minableMaterials) {
-        if (block == null || block.getType() == Material.AIR) {
+    private void retireDrops(MiningSession session) {
+        DropDelivery delivery = deliveryOf(session);
+        session.setDrops(null);
+        if (delivery != null && !delivery.deliver()) {
+            dropBacklog.add(delivery);
+        }
+    }
+    
+    private DropDelivery deliveryOf(MiningSession session) {
+        DropAggregator drops = session.getDrops();
+        if (drops == null || drops.isEmpty()) {
+            return null;
+        }
+        Object container = session.getMetadata(MiningSession.METADATA_DROP_CONTAINER);
+        return new DropDelivery(session.getPlayerUuid(), dropTargetOf(session),
+            container instanceof Location location ? location.clone() : null,
+            session.getCorner1().clone().add(0.5, 0.5, 0.5), maxDropEntitiesOf(session), drops);
+    }
+    
+    private int maxDropEntitiesOf(MiningSession session) {
+        Object value = session.getMetadata(MiningSession.METADATA_DROP_ENTITIES);
+        return value instanceof Number number ? Math.max(0, number.intValue()) : maxDropEntities;
+    }
+    
+    /**
+     * Stop recording for a session; a job that cleared nothing leaves no undo entry
+     */
+    private void finishSnapshot(MiningSession session) {
+        RegionSnapshot snapshot = session.getSnapshot();
+        if (snapshot != null) {
+            session.setSnapshot(null);
+            undoStore.discardIfEmpty(session.getPlayerUuid(), snapshot);
+        }
+    }
+    
+    /**
+     * Put back the blocks cleared by the player's most recent job
+     * Returns false if a job is still running, a restore is in progress or there is nothing to undo.
+     * A job that handed out its drops is never undone, since putting its blocks back would let
+     * them be mined for items again; see {@link #isUndoBlockedByDrops}.
+     */
+    public boolean undo(Player player) {
+        if (isUndoBlockedByDrops(player.getUniqueId())) {
+            return false;
+        }
+        return startRestore(player.getUniqueId(), true);
+    }
+    
+    /**
+     * Check if the player's most recent job handed out drops and so cannot be undone
+     */
+    public boolean isUndoBlockedByDrops(UUID playerUuid) {
+        RegionSnapshot snapshot = undoStore.peekUndo(playerUuid);
+        return snapshot != null && snapshot.hasDeliveredDrops();
+    }
+    
+    /**
+     * Clear again the blocks put back by the player's most recent undo
+     */
+    public boolean redo(Player player) {
+        return startRestore(player.getUniqueId(), false);
+    }
+    
+    private boolean startRestore(UUID playerUuid, boolean undo) {
+        MiningSession session = activeSessions.get(playerUuid);
+        if (session != null && session.isRunning()) {
             return false;
         }
+        for (RestoreTask task : restoreTasks) {
+            if (task.getPlayerUuid().equals(playerUuid)) {
+                return false;
+            }
+        }
         
-        if (minableMaterials.isEmpty()) {
+        RegionSnapshot snapshot = undo ? undoStore.popUndo(playerUuid) : undoStore.popRedo(playerUuid);
+        if (snapshot == null) {
             return false;
         }
+        restoreTasks.add(new RestoreTask(playerUuid, snapshot, undo));
+        return true;
+    }
+    
+    /**
+     * Run pending undo and redo tasks in order; returns the number of blocks changed
+     */
+    private int runRestoreTasks(long deadlineNanos, int maxBlocks) {
+        int changed = 0;
+        Iterator<RestoreTask> iterator = restoreTasks.iterator();
+        while (iterator.hasNext() && changed < maxBlocks && System.nanoTime() < deadlineNanos) {
+            RestoreTask task = iterator.next();
+            changed += task.run(deadlineNanos, maxBlocks - changed);
+            if (task.isDone()) {
+                iterator.remove();
+                undoStore.pushApplied(task.getPlayerUuid(), task.getSnapshot(), task.isUndo());
+            }
+        }
+        return changed;
+    }
+    
+    public UndoStore getUndoStore() {
+        return undoStore;
+    }
+    
+    /**
+     * Hand a session to its world's run queue, which the tick engine picks up on the next tick
+     */
+    private void enqueue(MiningSession session) {
+        UUID worldUid = session.getCorner1().getWorld().getUID();
+        if (worldQueues.computeIfAbsent(worldUid, WorldQueue::new).add(session)) {
+            metrics.recordSessionStarted();
+        }
+    }
+    
+    /**
+     * Take a session off its world's run queue; an emptied queue is dropped on the next tick
+     */
+    private void dequeue(MiningSession session) {
+        World world = session.getCorner1().getWorld();
+        WorldQueue queue = world == null ? null : worldQueues.get(world.getUID());
+        if (queue != null) {
+            queue.remove(session);
+        }
+    }
+    
+    /**
+     * Set the directory session journals are written to
+     */
+    public void setJournalDirectory(Path journalDirectory) {
+        this.journalDirectory = Objects.requireNonNull(journalDirectory, "journalDirectory");
+    }
+    
+    private Path journalFile(UUID playerUuid) {
+        return journalDirectory.resolve(playerUuid + ".journal");
+    }
+    
+    /**
+     * Create the journal for a new session; mining continues without one if the disk fails
+     */
+    private SessionJournal openJournal(MiningSession session, World world) {
+        Set<String> materials = new LinkedHashSet<>();
+        session.getFilter().toSet().forEach(material -> materials.add(material.name()));
         
-        return minableMaterials.contains(block.getType());
+        try {
+            return SessionJournal.create(journalFile(session.getPlayerUuid()), SessionJournal.JournalState.start(
+                session.getPlayerUuid(), session.getPlayerName(), world.getUID(), session.getCursor(),
+                session.getMode(), session.getWeight(), materials));
+        } catch (IOException e) {
+            Bukkit.getLogger().warning("Could not create mining journal for " + session.getPlayerName() + ": " + e);
+            return null;
+        }
     }
     
     /**
-     * Start mining blocks in a session asynchronously
+     * Close a session's journal, deleting the file if the session will not be resumed
      */
-    public void startMiningSession(MiningSession session, Set<Material> minableMaterials) {
-        Player player = Bukkit.getPlayer(session.getPlayerUuid());
-        if (player == null) {
-            endSession(session.getPlayerUuid());
+    private void closeJournal(MiningSession session, boolean delete) {
+        SessionJournal journal = session.getJournal();
+        if (journal == null) {
             return;
         }
         
-        // Build block list
-        List<Block> blockList = buildBlockList(
-            session.getCorner1(),
-            session.getCorner2(),
-            minableMaterials
+        session.setJournal(null);
+        try {
+            if (delete) {
+                journal.delete();
+            } else {
+                journal.checkpoint(session.getCursor().position(), session.getBlocksScanned(), session.getBlocksMined());
+                journal.close();
+            }
+        } catch (IOException e) {
+            Bukkit.getLogger().warning("Could not close mining journal " + journal.getFile() + ": " + e);
+        }
+    }
+    
+    /**
+     * Record a session's cursor position every few ticks
+     */
+    private void checkpoint(MiningSession session) {
+        SessionJournal journal = session.getJournal();
+        if (journal != null && session.getState() == MiningSession.State.MINING
+                && session.advanceCheckpointTimer(checkpointInterval)) {
+            journal.checkpoint(session.getCursor().position(), session.getBlocksScanned(), session.getBlocksMined());
+        }
+    }
+    
+    /**
+     * Sync dirty journals to disk; runs on the journal thread
+     */
+    private void flushJournals() {
+        List<MiningSession> sessions = activeSessions.snapshot();
+        for (int i = 0; i < sessions.size(); i++) {
+            SessionJournal journal = sessions.get(i).getJournal();
+            if (journal != null) {
+                journal.force();
+            }
+        }
+    }
+    
+    /**
+     * Resume every session with a journal on disk from its last checkpoint
+     * Chunk columns the cursor had already finished are not planned again
+     */
+    public int resumeSessions() {
+        if (!Files.isDirectory(journalDirectory)) {
+            return 0;
+        }
+        
+        int resumed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journalDirectory, "*.journal")) {
+            for (Path file : files) {
+                try {
+                    if (resumeSession(file)) {
+                        resumed++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Bukkit.getLogger().warning("Could not resume mining journal " + file + ": " + e);
+                }
+            }
+        } catch (IOException e) {
+            Bukkit.getLogger().warning("Could not list mining journals in " + journalDirectory + ": " + e);
+        }
+        return resumed;
+    }
+    
+    private boolean resumeSession(Path file) throws IOException {
+        SessionJournal.JournalState state = SessionJournal.read(file);
+        if (activeSessions.contains(state.playerUuid())) {
+            return false;
+        }
+        
+        World world = Bukkit.getWorld(state.worldUuid());
+        if (world == null) {
+            // Keep the journal; the world may be loaded later
+            Bukkit.getLogger().warning("World of mining journal " + file + " is not loaded");
+            return false;
+        }
+        
+        List<Material> materials = new ArrayList<>();
+        for (String name : state.materials()) {
+            Material material = Material.matchMaterial(name);
+            if (material != null) {
+                materials.add(material);
+            }
+        }
+        
+        MiningSession session = new MiningSession(
+            state.playerUuid(),
+            state.playerName(),
+            new Location(world, state.minX(), state.minY(), state.minZ()),
+            new Location(world, state.maxX(), state.maxY(), state.maxZ()),
+            System.currentTimeMillis()
         );
+        session.setMetrics(new MiningMetrics(metrics));
+        BlockCursor cursor = BlockCursor.between(session.getCorner1(), session.getCorner2());
+        cursor.seek(state.position());
+        if (!cursor.hasNext()) {
+            Files.deleteIfExists(file);
+            return false;
+        }
         
-        session.setTotalBlocks(blockList.size());
+        MaterialFilter filter = MaterialFilter.of(materials);
+        session.setCursor(cursor);
+        session.setFilter(filter);
+        session.setMode(state.mode());
+        session.setWeight(Math.max(1, state.weight()));
+        session.addBlocksMined(state.blocksMined());
+        session.addBlocksScanned(state.blocksScanned());
+        // The planner starts from the cursor's chunk column, skipping finished ones
+        session.setPlanner(new MiningPlanner(world, cursor, filter));
+        session.setPrefetcher(createPrefetcher(world, session.getPlanner().getChunkKeys(), session));
+        session.setJournal(SessionJournal.reopen(file, state));
+        // Snapshots do not survive restarts, so only the rest of the job can be undone
+        beginSnapshot(session, world);
+        configureDrops(session, Bukkit.getPlayer(session.getPlayerUuid()));
         
-        // Process blocks in batches
-        processMiningBatches(session, blockList, 0);
+        if (activeSessions.putIfAbsent(session) != null) {
+            closeJournal(session, false);
+            finishSnapshot(session);
+            session.cleanup();
+            return false;
+        }
+        armTimeouts(session);
+        enqueue(session);
+        return true;
     }
     
     /**
-     * Process mining blocks in batches to avoid server lag
+     * Chunks are held with a chunk ticket on the running server's matching world while mined
      */
-    private void processMiningBatches(MiningSession session, List<Block> blockList, int startIndex) {
-        if (startIndex >= blockList.size()) {
-            session.markAsCompleted();
+    private ChunkPrefetcher createPrefetcher(World world, long[] chunkKeys, MiningSession session) {
+        return new ChunkPrefetcher(world, ChunkTickets.forWorld(server, world), chunkKeys, prefetchDistance, session.getMetrics());
+    }
+    
+    /**
+     * Default scheduling weight for a player's session
+     */
+    private int weightFor(Player player) {
+        if (player.hasPermission("areaminer.priority.high")) {
+            return 4;
+        }
+        return player.isOp() ? 2 : 1;
+    }
+    
+    /**
+     * Run one round of mining; registered for the end of every server tick
+     * With nothing queued this is a single map check.
+     */
+    void onServerTick(MinecraftServer server) {
+        tickCount++;
+        timeouts.advance(tickCount, this::onTimeout);
+        if (!dropBacklog.isEmpty()) {
+            // Drops of ended jobs that did not fit, a few stacks per job each tick
+            dropBacklog.removeIf(DropDelivery::deliver);
+        }
+        if (worldQueues.isEmpty() && restoreTasks.isEmpty()) {
+            if (ticking) {
+                ticking = false;
+                tickBudget.recordSpent(0L);
+                metrics.recordTick(0L, 0, 0);
+            }
             return;
         }
         
-        int endIndex = Math.min(startIndex + blockBatchSize, blockList.size());
+        if (!ticking) {
+            // Tick times from before mining resumed say nothing about the mining load
+            ticking = true;
+            tickBudget.resetHistory();
+        } else {
+            tickBudget.update(server.getAverageNanosPerTick() / 1_000_000.0);
+        }
+        tick();
+    }
+    
+    /**
+     * Spend this tick's budget across worlds, then within each world across its sessions
+     * in weighted round-robin order
+     */
+    private void tick() {
+        long tickStart = System.nanoTime();
         
-        // Process batch
-        for (int i = startIndex; i < endIndex; i++) {
-            Block block = blockList.get(i);
-            if (block != null && block.getType() != Material.AIR) {
-                block.setType(Material.AIR);
-                session.incrementBlocksMined();
+        // Only worlds with queued sessions are visited; unloaded ones stay parked
+        tickQueues.clear();
+        int count = 0;
+        int remainingWeight = 0;
+        int planning = 0;
+        Iterator<WorldQueue> queues = worldQueues.values().iterator();
+        while (queues.hasNext()) {
+            WorldQueue queue = queues.next();
+            queue.removeFinished(this::onSessionRemoved);
+            if (queue.isEmpty()) {
+                queues.remove();
+                continue;
             }
+            if (!queue.refreshWorld()) {
+                continue;
+            }
+            
+            tickQueues.add(queue);
+            for (int i = 0; i < queue.size(); i++) {
+                MiningSession session = queue.get(i);
+                remainingWeight += session.getWeight();
+                if (session.getState() == MiningSession.State.PLANNING) {
+                    planning++;
+                }
+                session.getMetrics().updateRate(tickStart);
+            }
+            count += queue.size();
         }
         
-        // Schedule next batch
-        if (endIndex < blockList.size()) {
-            final int nextStart = endIndex;
-            scheduler.scheduleSyncDelayedTask(
-                Bukkit.getPluginManager().getPlugins()[0],
-                () -> processMiningBatches(session, blockList, nextStart),
-                1L // 1 tick delay between batches
-            );
-        } else {
+        long deadline = tickStart + tickBudget.getBudgetNanos();
+        int blocksLeft = maxBlocksPerTick;
+        if (!restoreTasks.isEmpty()) {
+            // Undo and redo share the budget like one more session of weight 1
+            long restoreDeadline = tickStart + tickBudget.getBudgetNanos() / (remainingWeight + 1);
+            blocksLeft -= runRestoreTasks(restoreDeadline, count == 0 ? blocksLeft : blocksLeft / (count + 1));
+        }
+        
+        int worlds = tickQueues.size();
+        if (worlds > 0) {
+            // Rotate the first world, so rolled-over time does not always favour the same one
+            int start = worldRotation % worlds;
+            for (int i = 0; i < worlds && blocksLeft > 0; i++) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    break;
+                }
+                
+                WorldQueue queue = tickQueues.get((start + i) % worlds);
+                int worldWeight = queue.getTotalWeight();
+                long worldDeadline = now + (deadline - now) * worldWeight / remainingWeight;
+                blocksLeft -= tickWorld(queue, worldDeadline, blocksLeft);
+                remainingWeight -= worldWeight;
+            }
+            worldRotation = (start + 1) % worlds;
+        }
+        tickQueues.clear();
+        
+        undoStore.enforceMemoryLimit();
+        
+        long spent = System.nanoTime() - tickStart;
+        tickBudget.recordSpent(spent);
+        metrics.recordTick(spent, count, planning);
+    }
+    
+    /**
+     * Spend one world's share of the tick across its sessions in weighted round-robin order
+     * Returns the number of blocks broken
+     */
+    private int tickWorld(WorldQueue queue, long deadline, int blocksLeft) {
+        int count = queue.size();
+        int remainingWeight = queue.getTotalWeight();
+        int minedTotal = 0;
+        
+        // Start where the previous tick stopped, so nobody is always served last
+        int start = queue.getRoundRobinIndex() % count;
+        int visited = 0;
+        while (visited < count && blocksLeft > 0) {
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                break;
+            }
+            
+            MiningSession session = queue.get((start + visited) % count);
+            int weight = session.getWeight();
+            
+            // Time slice and block allowance both scale with weight; unused time rolls over
+            long sliceDeadline = now + (deadline - now) * weight / remainingWeight;
+            int mined = 0;
+            if (session.getState() == MiningSession.State.PLANNING) {
+                advancePlanning(session, sliceDeadline);
+                session.recordTickSpent(System.nanoTime() - now);
+                session.markActive(tickCount);
+            } else {
+                int allowance = Math.min(session.grantDeficit(weight * blocksPerWeight), blocksLeft);
+                mined = processMiningBatches(session, sliceDeadline, allowance);
+                deliverDrops(session);
+                long spent = System.nanoTime() - now;
+                session.recordTickSpent(spent);
+                session.getMetrics().recordBatch(spent);
+                session.consumeDeficit(mined);
+                checkpoint(session);
+                if (mined > 0) {
+                    session.markActive(tickCount);
+                }
+            }
+            
+            blocksLeft -= mined;
+            minedTotal += mined;
+            remainingWeight -= weight;
+            visited++;
+        }
+        queue.setRoundRobinIndex((start + visited) % count);
+        return minedTotal;
+    }
+    
+    /**
+     * Take more chunk snapshots for a planning session, or hand over the finished plan
+     */
+    private void advancePlanning(MiningSession session, long deadlineNanos) {
+        MiningPlanner planner = session.getPlanner();
+        World world = session.getCorner1().getWorld();
+        if (!planner.isDone()) {
+            planner.captureSnapshots(world, plannerPool, session.getPrefetcher(), deadlineNanos);
+            return;
+        }
+        
+        MiningPlan plan;
+        try {
+            plan = planner.getPlan();
+        } catch (RuntimeException e) {
+            Bukkit.getLogger().warning("Planning failed for " + session.getPlayerName() + ": " + e);
             session.markAsCompleted();
+            return;
+        }
+        
+        session.getMetrics().recordPlanning(System.nanoTime() - session.getPlanningStartNanos());
+        session.setPlan(plan);
+        // Mining only visits chunks with targets, so prefetch exactly those
+        session.setPrefetcher(createPrefetcher(world, plan.getChunkKeys(), session));
+        // A resumed session only plans what is left, so add what was already mined
+        session.setTotalBlocks(Math.min(session.getBlocksMined() + plan.getMatchCount(), maxBlocksPerSession));
+        if (plan.getMatchCount() == 0) {
+            finishBox(session);
+        }
+    }
+    
+    /**
+     * Move a session on to its next queued box, or complete it when none are left
+     */
+    private void finishBox(MiningSession session) {
+        BlockCursor next = session.pollPendingBox();
+        if (next == null || session.getBlocksMined() >= maxBlocksPerSession) {
+            session.markAsCompleted();
+            return;
+        }
+        
+        World world = session.getCorner1().getWorld();
+        session.setCursor(next);
+        session.setPlanner(new MiningPlanner(world, next, session.getFilter()));
+        session.setPrefetcher(createPrefetcher(world, session.getPlanner().getChunkKeys(), session));
+        // The journal describes one box, so start a fresh one for the next
+        closeJournal(session, true);
+        session.setJournal(openJournal(session, world));
+    }
+    
+    /**
+     * Release what a finished session holds once it leaves its run queue
+     */
+    private void onSessionRemoved(MiningSession session) {
+        session.setPrefetcher(null);
+        if (session.isCompleted()) {
+            closeJournal(session, true);
+            finishSnapshot(session);
+            retireDrops(session);
+            metrics.recordSessionCompleted();
+        }
+    }
+    
+    /**
+     * Mine up to a number of blocks for a session, stopping early at the deadline
+     * Returns the number of blocks broken
+     */
+    int processMiningBatches(MiningSession session, long deadlineNanos, int maxBlocks) {
+        BlockCursor cursor = session.getCursor();
+        World world = session.getCorner1().getWorld();
+        MaterialFilter filter = session.getFilter();
+        MiningPlan plan = session.getPlan();
+        MiningMetrics sessionMetrics = session.getMetrics();
+        ChunkPrefetcher prefetcher = session.getPrefetcher();
+        RegionSnapshot snapshot = session.getSnapshot();
+        DropAggregator drops = session.getDrops();
+        ItemStack dropTool = session.getDropTool();
+        boolean bulk = session.getMode() == MiningMode.BULK;
+        // Bulk writes go straight into chunk sections; without a matching server world they fall back to Bukkit
+        SectionWriter writer = bulk ? SectionWriter.forWorld(server, world) : null;
+        if (bulk && writer == null && air == null) {
+            air = Material.AIR.createBlockData();
+        }
+        long maskKey = BlockCursor.EXHAUSTED;
+        long[] mask = null;
+        int mined = 0;
+        int scanned = 0;
+        int sinceClockCheck = 0;
+        
+        try {
+            while (cursor.hasNext()) {
+                if (session.getBlocksMined() >= maxBlocksPerSession) {
+                    break;
+                }
+                if (mined >= maxBlocks) {
+                    return mined;
+                }
+                
+                long packed = cursor.position();
+                int x = BlockCursor.unpackX(packed);
+                int y = BlockCursor.unpackY(packed);
+                int z = BlockCursor.unpackZ(packed);
+                
+                // Sections without planned targets are skipped whole
+                long sectionKey = MiningPlan.sectionKey(x, y, z);
+                if (sectionKey != maskKey) {
+                    maskKey = sectionKey;
+                    mask = plan.getSectionMask(sectionKey);
+                    // Wait for the chunk to arrive rather than loading it synchronously
+                    if (mask != null && prefetcher != null && !prefetcher.enter(x >> 4, z >> 4)) {
+                        return mined;
+                    }
+                }
+                if (mask == null) {
+                    cursor.skipSection();
+                    sinceClockCheck++;
+                    continue;
+                }
+                
+                cursor.next();
+                session.incrementBlocksScanned();
+                scanned++;
+                
+                // The plan comes from a snapshot, so confirm the block is still a target.
+                // Unmarking keeps the plan's masks showing only what is left to visit.
+                Material type = plan.unmark(sectionKey, mask, x, y, z) ? world.getType(x, y, z) : null;
+                if (type != null && filter.matches(type)) {
+                    if (snapshot != null) {
+                        snapshot.record(x, y, z, world.getBlockData(x, y, z));
+                    }
+                    if (drops != null) {
+                        // Drops depend on the block state, so roll them before it is cleared
+                        Block block = world.getBlockAt(x, y, z);
+                        drops.add(dropTool == null ? block.getDrops() : block.getDrops(dropTool));
+                    }
+                    if (writer != null) {
+                        // Light, heightmaps and the client update follow once per section, so a write costs about a scan
+                        writer.clear(x, y, z);
+                        sinceClockCheck++;
+                    } else if (bulk) {
+                        world.getBlockAt(x, y, z).setBlockData(air, false);
+                        sinceClockCheck++;
+                    } else {
+                        world.getBlockAt(x, y, z).setType(Material.AIR);
+                        // A physics break is far more expensive than scanning, so check the clock right away
+                        sinceClockCheck = clockCheckInterval;
+                    }
+                    session.incrementBlocksMined();
+                    sessionMetrics.recordBlockMined(type);
+                    mined++;
+                } else {
+                    sinceClockCheck++;
+                }
+                
+                if (sinceClockCheck >= clockCheckInterval) {
+                    sinceClockCheck = 0;
+                    if (System.nanoTime() >= deadlineNanos) {
+                        return mined;
+                    }
+                }
+            }
+            
+            finishBox(session);
+            return mined;
+        } finally {
+            if (writer != null) {
+                writer.flush();
+            }
+            sessionMetrics.recordBlocksScanned(scanned);
         }
     }
     
@@ -263,32 +1169,182 @@ public class MiningController {
         stats.put("player", session.getPlayerName());
         stats.put("totalBlocks", session.getTotalBlocks());
         stats.put("blocksMined", session.getBlocksMined());
+        stats.put("blocksScanned", session.getBlocksScanned());
         stats.put("progress", String.format("%.2f%%", session.getProgress()));
+        stats.put("state", session.getState());
+        if (session.getState() == MiningSession.State.PLANNING) {
+            stats.put("planningProgress", String.format("%.2f%%", session.getPlanner().getProgress()));
+        }
         stats.put("isCompleted", session.isCompleted());
         stats.put("startTime", new Date(session.getStartTime()));
         stats.put("duration", System.currentTimeMillis() - session.getStartTime());
+        stats.put("mode", session.getMode());
+        stats.put("weight", session.getWeight());
+        stats.put("pendingBoxes", session.getPendingBoxCount());
+        stats.put("paused", session.isPaused());
+        if (session.getDrops() != null) {
+            stats.put("pendingDrops", session.getDrops().getItemCount());
+        }
+        stats.put("lastTickNanos", session.getLastTickNanos());
+        stats.put("blocksPerSecond", String.format("%.2f", session.getMetrics().getBlocksPerSecond()));
+        stats.put("batchLatencyP99Nanos", session.getMetrics().getBatchLatency().percentile(99.0));
+        stats.put("chunkLoads", session.getMetrics().getChunkLoads());
+        stats.put("tickBudgetNanos", tickBudget.getBudgetNanos());
+        stats.put("tickSpentNanos", tickBudget.getLastSpentNanos());
+        stats.put("observedTickMillis", String.format("%.2f", tickBudget.getSmoothedTickMillis()));
         
         return stats;
     }
     
     /**
      * Clean up expired sessions
+     * Timeouts are processed at the start of every server tick; this only fires any due right now.
      */
     public void cleanupExpiredSessions() {
-        long currentTime = System.currentTimeMillis();
-        activeSessions.entrySet().removeIf(entry -> {
-            MiningSession session = entry.getValue();
-            long sessionAge = currentTime - session.getStartTime();
-            return sessionAge > (maxSessionDuration * 50); // Convert ticks to milliseconds
-        });
+        timeouts.advance(tickCount, this::onTimeout);
+    }
+    
+    /**
+     * Set the timeouts new sessions start with, in ticks; 0 disables a timeout
+     */
+    public void setDefaultTimeouts(int sessionTimeout, int idleTimeout, int pauseTimeout) {
+        this.defaultSessionTimeout = Math.max(0, sessionTimeout);
+        this.defaultIdleTimeout = Math.max(0, idleTimeout);
+        this.defaultPauseTimeout = Math.max(0, pauseTimeout);
+    }
+    
+    /**
+     * Give a newly registered session the default timeouts, unless already set, and arm them
+     */
+    private void armTimeouts(MiningSession session) {
+        if (session.getSessionTimeout() < 0) {
+            session.setSessionTimeout(defaultSessionTimeout);
+        }
+        if (session.getIdleTimeout() < 0) {
+            session.setIdleTimeout(defaultIdleTimeout);
+        }
+        if (session.getPauseTimeout() < 0) {
+            session.setPauseTimeout(defaultPauseTimeout);
+        }
+        
+        session.markActive(tickCount);
+        if (session.getSessionTimeout() > 0) {
+            timeouts.schedule(session.sessionTimer, tickCount + session.getSessionTimeout());
+        }
+        if (session.getIdleTimeout() > 0) {
+            timeouts.schedule(session.idleTimer, tickCount + session.getIdleTimeout());
+        }
+    }
+    
+    private void disarmTimeouts(MiningSession session) {
+        timeouts.cancel(session.sessionTimer);
+        timeouts.cancel(session.idleTimer);
+        timeouts.cancel(session.pauseTimer);
+    }
+    
+    /**
+     * End a session whose timeout fired, through the same path as a player stopping it
+     * The idle timer is not moved on every block mined; when it fires early it is re-armed
+     * from the last activity instead, so each session costs O(1) amortized per timeout.
+     */
+    private void onTimeout(TimerWheel.Timer<MiningSession> timer) {
+        MiningSession session = timer.getOwner();
+        if (activeSessions.get(session.getPlayerUuid()) != session) {
+            return;
+        }
+        
+        String reason;
+        switch (timer.getKind()) {
+            case MiningSession.TIMEOUT_IDLE -> {
+                if (session.isPaused()) {
+                    return; // The pause timer takes over while paused
+                }
+                long due = session.getLastActiveTick() + session.getIdleTimeout();
+                if (due > tickCount) {
+                    timeouts.schedule(timer, due);
+                    return;
+                }
+                reason = "idle";
+            }
+            case MiningSession.TIMEOUT_PAUSE -> reason = "paused";
+            default -> reason = "expired";
+        }
+        
+        Bukkit.getLogger().info("Ending " + reason + " mining session of " + session.getPlayerName());
+        endSession(session.getPlayerUuid());
+    }
+    
+    /**
+     * Pause a player's running session; it leaves the run queue and releases its chunks
+     * Returns false if there is no running, unpaused session.
+     */
+    public boolean pause(UUID playerUuid) {
+        MiningSession session = activeSessions.get(playerUuid);
+        if (session == null || !session.isRunning() || session.isPaused()) {
+            return false;
+        }
+        
+        session.setPaused(true);
+        dequeue(session);
+        session.setPrefetcher(null);
+        timeouts.cancel(session.idleTimer);
+        if (session.getPauseTimeout() > 0) {
+            timeouts.schedule(session.pauseTimer, tickCount + session.getPauseTimeout());
+        }
+        return true;
+    }
+    
+    /**
+     * Continue a paused session where it stopped
+     */
+    public boolean resume(UUID playerUuid) {
+        MiningSession session = activeSessions.get(playerUuid);
+        if (session == null || !session.isPaused()) {
+            return false;
+        }
+        
+        World world = session.getCorner1().getWorld();
+        long[] chunkKeys = session.getPlan() != null
+            ? session.getPlan().getChunkKeys() : session.getPlanner().getChunkKeys();
+        session.setPrefetcher(createPrefetcher(world, chunkKeys, session));
+        session.setPaused(false);
+        timeouts.cancel(session.pauseTimer);
+        session.markActive(tickCount);
+        if (session.getIdleTimeout() > 0) {
+            timeouts.schedule(session.idleTimer, tickCount + session.getIdleTimeout());
+        }
+        worldQueues.computeIfAbsent(world.getUID(), WorldQueue::new).add(session);
+        return true;
     }
     
     /**
      * Cleanup all sessions
      */
     public void cleanupAll() {
-        activeSessions.values().forEach(MiningSession::cleanup);
+        worldQueues.values().forEach(WorldQueue::clear);
+        worldQueues.clear();
+        timeouts.clear();
+        ticking = false;
+        restoreTasks.clear();
+        undoStore.clear();
+        // Journals are kept on disk so running sessions resume after a restart
+        List<MiningSession> sessions = activeSessions.snapshot();
         activeSessions.clear();
+        for (MiningSession session : sessions) {
+            closeJournal(session, session.isCompleted());
+            retireDrops(session);
+            session.cleanup();
+        }
+        // The world is saving; rather than spawn everything left at once, deliver one more round and void the rest
+        for (DropDelivery delivery : dropBacklog) {
+            if (!delivery.deliver()) {
+                Bukkit.getLogger().warning("Discarded " + delivery.discard() + " undelivered mining drops of "
+                    + delivery.getPlayerUuid() + " at shutdown");
+            }
+        }
+        dropBacklog.clear();
+        stopWorkers();
+        server = null;
     }
     
     /**
@@ -302,6 +1358,21 @@ public class MiningController {
      * Inner class representing a mining session
      */
     public static class MiningSession {
+        /** Metadata key; set to {@code false} before starting to skip recording undo snapshots */
+        public static final String METADATA_UNDO = "undo";
+        /** Metadata key; a {@link DropTarget} or its name, defaulting to the player's inventory */
+        public static final String METADATA_DROPS = "drops";
+        /** Metadata key; the {@link Location} of the container that receives drops */
+        public static final String METADATA_DROP_CONTAINER = "dropContainer";
+        /** Metadata key; the {@link ItemStack} drops are rolled with, e.g. for fortune or silk touch */
+        public static final String METADATA_DROP_TOOL = "dropTool";
+        /** Metadata key; the number of overflow item entities the session may spawn per tick */
+        public static final String METADATA_DROP_ENTITIES = "dropEntities";
+        
+        static final int TIMEOUT_SESSION = 0;
+        static final int TIMEOUT_IDLE = 1;
+        static final int TIMEOUT_PAUSE = 2;
+        
         private final UUID playerUuid;
         private final String playerName;
         private final Location corner1;
@@ -309,8 +1380,34 @@ public class MiningController {
         private final long startTime;
         private volatile int totalBlocks;
         private volatile int blocksMined;
-        private volatile boolean completed;
+        private volatile long blocksScanned;
+        private volatile State state;
+        private BlockCursor cursor;
+        private MiningPlanner planner;
+        private MiningPlan plan;
+        private MaterialFilter filter = MaterialFilter.NONE;
+        private volatile long lastTickNanos;
+        private int weight;
+        private int deficit;
+        private volatile MiningMode mode = MiningMode.BULK;
+        private volatile SessionJournal journal;
+        private int ticksSinceCheckpoint;
+        private long planningStartNanos;
+        private ChunkPrefetcher prefetcher;
+        private final Deque<BlockCursor> pendingBoxes;
+        private RegionSnapshot snapshot;
+        private DropAggregator drops;
+        private ItemStack dropTool;
+        private MiningMetrics metrics;
         private final Map<String, Object> metadata;
+        private volatile boolean paused;
+        private int sessionTimeout = -1;
+        private int idleTimeout = -1;
+        private int pauseTimeout = -1;
+        private long lastActiveTick;
+        final TimerWheel.Timer<MiningSession> sessionTimer;
+        final TimerWheel.Timer<MiningSession> idleTimer;
+        final TimerWheel.Timer<MiningSession> pauseTimer;
         
         public MiningSession(UUID playerUuid, String playerName, Location corner1, 
                            Location corner2, long startTime) {
@@ -321,8 +1418,13 @@ public class MiningController {
             this.startTime = startTime;
             this.totalBlocks = 0;
             this.blocksMined = 0;
-            this.completed = false;
+            this.state = State.PLANNING;
+            this.metrics = new MiningMetrics();
+            this.pendingBoxes = new ArrayDeque<>();
             this.metadata = new ConcurrentHashMap<>();
+            this.sessionTimer = new TimerWheel.Timer<>(this, TIMEOUT_SESSION);
+            this.idleTimer = new TimerWheel.Timer<>(this, TIMEOUT_IDLE);
+            this.pauseTimer = new TimerWheel.Timer<>(this, TIMEOUT_PAUSE);
         }
         
         public UUID getPlayerUuid() {
@@ -365,19 +1467,272 @@ public class MiningController {
             this.blocksMined += count;
         }
         
+        public long getBlocksScanned() {
+            return blocksScanned;
+        }
+        
+        public void incrementBlocksScanned() {
+            this.blocksScanned++;
+        }
+        
+        public void addBlocksScanned(long count) {
+            this.blocksScanned += count;
+        }
+        
+        public SessionJournal getJournal() {
+            return journal;
+        }
+        
+        public void setJournal(SessionJournal journal) {
+            this.journal = journal;
+        }
+        
+        /**
+         * Count a tick towards the next checkpoint; returns true when one is due
+         */
+        boolean advanceCheckpointTimer(int interval) {
+            if (++ticksSinceCheckpoint < interval && state != State.COMPLETED) {
+                return false;
+            }
+            ticksSinceCheckpoint = 0;
+            return true;
+        }
+        
+        public BlockCursor getCursor() {
+            return cursor;
+        }
+        
+        public void setCursor(BlockCursor cursor) {
+            this.cursor = cursor;
+        }
+        
+        public MaterialFilter getFilter() {
+            return filter;
+        }
+        
+        public void setFilter(MaterialFilter filter) {
+            this.filter = Objects.requireNonNull(filter, "filter");
+        }
+        
+        /**
+         * Check if the session has a cursor and still has blocks to mine
+         */
+        public boolean isRunning() {
+            return cursor != null && state != State.COMPLETED;
+        }
+        
+        public MiningMode getMode() {
+            return mode;
+        }
+        
+        /**
+         * Choose how blocks are cleared; the default BULK batches updates per section, VANILLA_ACCURATE opts into per-block physics
+         */
+        public void setMode(MiningMode mode) {
+            this.mode = Objects.requireNonNull(mode, "mode");
+        }
+        
+        /**
+         * Scheduling weight; a session with weight 2 gets twice the blocks and time of weight 1
+         */
+        public int getWeight() {
+            return weight;
+        }
+        
+        public void setWeight(int weight) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Session weight must be at least 1: " + weight);
+            }
+            this.weight = weight;
+        }
+        
+        /**
+         * Add this tick's block quantum and return the blocks the session may mine
+         * The carried-over deficit is capped so a stalled session cannot hoard a burst
+         */
+        int grantDeficit(int quantum) {
+            deficit = Math.min(deficit + quantum, quantum * 4);
+            return deficit;
+        }
+        
+        void consumeDeficit(int blocks) {
+            deficit = state == State.COMPLETED ? 0 : Math.max(0, deficit - blocks);
+        }
+        
+        public long getLastTickNanos() {
+            return lastTickNanos;
+        }
+        
+        public boolean isPaused() {
+            return paused;
+        }
+        
+        void setPaused(boolean paused) {
+            this.paused = paused;
+        }
+        
+        /**
+         * Ticks from registration until the session is ended; 0 never, -1 the controller default
+         * Takes effect when the session is registered.
+         */
+        public int getSessionTimeout() {
+            return sessionTimeout;
+        }
+        
+        public void setSessionTimeout(int ticks) {
+            this.sessionTimeout = ticks;
+        }
+        
+        /**
+         * Ticks without progress before the session is ended; 0 never, -1 the controller default
+         */
+        public int getIdleTimeout() {
+            return idleTimeout;
+        }
+        
+        public void setIdleTimeout(int ticks) {
+            this.idleTimeout = ticks;
+        }
+        
+        /**
+         * Ticks a session may stay paused before it is ended; 0 never, -1 the controller default
+         */
+        public int getPauseTimeout() {
+            return pauseTimeout;
+        }
+        
+        public void setPauseTimeout(int ticks) {
+            this.pauseTimeout = ticks;
+        }
+        
+        long getLastActiveTick() {
+            return lastActiveTick;
+        }
+        
+        void markActive(long tick) {
+            this.lastActiveTick = tick;
+        }
+        
+        /**
+         * Queue another box to mine after the current one, as part of the same job
+         */
+        public void addPendingBox(BlockCursor box) {
+            pendingBoxes.add(box);
+        }
+        
+        BlockCursor pollPendingBox() {
+            return pendingBoxes.poll();
+        }
+        
+        public int getPendingBoxCount() {
+            return pendingBoxes.size();
+        }
+        
+        public RegionSnapshot getSnapshot() {
+            return snapshot;
+        }
+        
+        public void setSnapshot(RegionSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+        
+        /**
+         * Drops collected since the last delivery, or null if the session discards drops
+         */
+        public DropAggregator getDrops() {
+            return drops;
+        }
+        
+        public void setDrops(DropAggregator drops) {
+            this.drops = drops;
+        }
+        
+        public ItemStack getDropTool() {
+            return dropTool;
+        }
+        
+        public void setDropTool(ItemStack dropTool) {
+            this.dropTool = dropTool;
+        }
+        
+        public ChunkPrefetcher getPrefetcher() {
+            return prefetcher;
+        }
+        
+        /**
+         * Replace the session's prefetcher, releasing the chunk tickets of the old one
+         */
+        public void setPrefetcher(ChunkPrefetcher prefetcher) {
+            if (this.prefetcher != null && this.prefetcher != prefetcher) {
+                this.prefetcher.releaseAll();
+            }
+            this.prefetcher = prefetcher;
+        }
+        
+        public MiningMetrics getMetrics() {
+            return metrics;
+        }
+        
+        /**
+         * Replace the session's metrics, typically with a child of the controller's global metrics
+         */
+        public void setMetrics(MiningMetrics metrics) {
+            this.metrics = metrics;
+        }
+        
+        public void recordTickSpent(long nanos) {
+            this.lastTickNanos = nanos;
+        }
+        
         public double getProgress() {
+            if (state == State.COMPLETED) {
+                return 100.0;
+            }
             if (totalBlocks == 0) {
                 return 0.0;
             }
-            return (blocksMined / (double) totalBlocks) * 100.0;
+            // Blocks changed since planning can make the mined count overshoot slightly
+            return Math.min(100.0, (blocksMined / (double) totalBlocks) * 100.0);
+        }
+        
+        public State getState() {
+            return state;
+        }
+        
+        public MiningPlanner getPlanner() {
+            return planner;
+        }
+        
+        public void setPlanner(MiningPlanner planner) {
+            this.planner = planner;
+            this.plan = null;
+            this.planningStartNanos = System.nanoTime();
+            this.state = State.PLANNING;
+        }
+        
+        public long getPlanningStartNanos() {
+            return planningStartNanos;
+        }
+        
+        public MiningPlan getPlan() {
+            return plan;
+        }
+        
+        /**
+         * Install the finished plan and switch the session to mining
+         */
+        public void setPlan(MiningPlan plan) {
+            this.plan = plan;
+            this.planner = null;
+            this.state = State.MINING;
         }
         
         public boolean isCompleted() {
-            return completed;
+            return state == State.COMPLETED;
         }
         
         public void markAsCompleted() {
-            this.completed = true;
+            this.state = State.COMPLETED;
         }
         
         public void setMetadata(String key, Object value) {
@@ -389,9 +1744,26 @@ public class MiningController {
         }
         
         public void cleanup() {
+            if (planner != null) {
+                planner.cancel();
+                planner = null;
+            }
+            setPrefetcher(null);
+            pendingBoxes.clear();
+            drops = null;
+            plan = null;
             metadata.clear();
         }
         
+        /**
+         * Lifecycle of a session: chunk snapshots are scanned, then blocks are broken
+         */
+        public enum State {
+            PLANNING,
+            MINING,
+            COMPLETED
+        }
+        
         @Override
         public String toString() {
             return String.format("MiningSession{player=%s, blocks=%d/%d, progress=%.2f%%}",
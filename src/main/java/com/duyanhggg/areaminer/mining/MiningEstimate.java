@@ -0,0 +1,98 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Material;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * MiningEstimate - What a job would yield and how long it would take, computed without mining
+ * Produced by {@link MiningController#estimate}; immutable.
+ */
+public final class MiningEstimate {
+
+    private final Map<Material, Long> materialCounts;
+    private final long targetBlocks;
+    private final long minedBlocks;
+    private final int affectedChunks;
+    private final int scannedChunks;
+    private final double blocksPerSecond;
+    private final long computeNanos;
+
+    MiningEstimate(Map<Material, Long> materialCounts, long targetBlocks, long minedBlocks,
+                   int affectedChunks, int scannedChunks, double blocksPerSecond, long computeNanos) {
+        this.materialCounts = Collections.unmodifiableMap(materialCounts);
+        this.targetBlocks = targetBlocks;
+        this.minedBlocks = minedBlocks;
+        this.affectedChunks = affectedChunks;
+        this.scannedChunks = scannedChunks;
+        this.blocksPerSecond = blocksPerSecond;
+        this.computeNanos = computeNanos;
+    }
+
+    /**
+     * Target blocks per material, most common first
+     */
+    public Map<Material, Long> getMaterialCounts() {
+        return materialCounts;
+    }
+
+    /**
+     * Get the number of blocks in the boxes that match the filter
+     */
+    public long getTargetBlocks() {
+        return targetBlocks;
+    }
+
+    /**
+     * Get the number of blocks a session would mine, after the per-session cap
+     */
+    public long getMinedBlocks() {
+        return minedBlocks;
+    }
+
+    public boolean isCapped() {
+        return minedBlocks < targetBlocks;
+    }
+
+    /**
+     * Get the number of chunk columns holding at least one target
+     */
+    public int getAffectedChunks() {
+        return affectedChunks;
+    }
+
+    /**
+     * Get the number of chunk columns the boxes span
+     */
+    public int getScannedChunks() {
+        return scannedChunks;
+    }
+
+    /**
+     * Get the mining rate the projection assumes
+     */
+    public double getBlocksPerSecond() {
+        return blocksPerSecond;
+    }
+
+    /**
+     * Projected mining time in seconds, not counting chunk loads and planning
+     */
+    public double getEstimatedSeconds() {
+        return blocksPerSecond > 0.0 ? minedBlocks / blocksPerSecond : 0.0;
+    }
+
+    /**
+     * Get how long the estimate took to compute
+     */
+    public long getComputeNanos() {
+        return computeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MiningEstimate{targets=%d, mined=%d, chunks=%d/%d, seconds=%.1f}",
+            targetBlocks, minedBlocks, affectedChunks, scannedChunks, getEstimatedSeconds());
+    }
+}
@@ -0,0 +1,171 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * MiningEstimator - Counts the targets of a job chunk by chunk, for a dry run
+ * Each chunk snapshot is counted on its own, from any thread, into shared per-material
+ * totals; nothing is marked or kept, so memory stays flat however large the job.
+ * Chunks whose palettes hold no target state and empty sections are skipped unread.
+ * Blocks covered by several boxes are counted once, like a batch would mine them.
+ */
+class MiningEstimator {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private final List<BlockCursor> boxes;
+    private final MaterialFilter filter;
+    private final BlockData[] paletteProbes;
+    private final int worldMinHeight;
+    private final int worldMaxHeight;
+    private final long[] chunkKeys;
+    private final AtomicLongArray counts;
+    private final AtomicInteger affectedChunks;
+
+    MiningEstimator(List<BlockCursor> boxes, MaterialFilter filter, int worldMinHeight, int worldMaxHeight) {
+        this.boxes = List.copyOf(boxes);
+        this.filter = filter;
+        // Resolved here, on the main thread, since it may create block data
+        this.paletteProbes = filter.getPaletteProbes();
+        this.worldMinHeight = worldMinHeight;
+        this.worldMaxHeight = worldMaxHeight;
+        this.chunkKeys = chunkKeysOf(boxes);
+        this.counts = new AtomicLongArray(MATERIALS.length);
+        this.affectedChunks = new AtomicInteger();
+    }
+
+    /**
+     * Distinct chunk columns spanned by the boxes
+     */
+    private static long[] chunkKeysOf(List<BlockCursor> boxes) {
+        List<long[]> perBox = new ArrayList<>(boxes.size());
+        int total = 0;
+        for (BlockCursor box : boxes) {
+            int minChunkX = box.getMinX() >> 4;
+            int minChunkZ = box.getMinZ() >> 4;
+            int width = (box.getMaxX() >> 4) - minChunkX + 1;
+            int depth = (box.getMaxZ() >> 4) - minChunkZ + 1;
+            long[] keys = new long[width * depth];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = BlockCursor.pack(minChunkX + i % width, 0, minChunkZ + i / width);
+            }
+            perBox.add(keys);
+            total += keys.length;
+        }
+
+        long[] keys = new long[total];
+        int offset = 0;
+        for (long[] box : perBox) {
+            System.arraycopy(box, 0, keys, offset, box.length);
+            offset += box.length;
+        }
+        return Arrays.stream(keys).distinct().toArray();
+    }
+
+    /**
+     * Get the chunk columns to count, each exactly once
+     */
+    long[] getChunkKeys() {
+        return chunkKeys;
+    }
+
+    /**
+     * Count the targets of one chunk column; safe to call from several threads at once
+     */
+    void count(ChunkSnapshot snapshot) {
+        if (!MaterialFilter.mayContain(snapshot, paletteProbes)) {
+            return;
+        }
+
+        int chunkMinX = snapshot.getX() << 4;
+        int chunkMinZ = snapshot.getZ() << 4;
+        long[] local = null;
+        for (int b = 0; b < boxes.size(); b++) {
+            BlockCursor box = boxes.get(b);
+            int minX = Math.max(box.getMinX(), chunkMinX);
+            int maxX = Math.min(box.getMaxX(), chunkMinX + 15);
+            int minZ = Math.max(box.getMinZ(), chunkMinZ);
+            int maxZ = Math.min(box.getMaxZ(), chunkMinZ + 15);
+            int boxMinY = Math.max(box.getMinY(), worldMinHeight);
+            int boxMaxY = Math.min(box.getMaxY(), worldMaxHeight - 1);
+            if (minX > maxX || minZ > maxZ || boxMinY > boxMaxY) {
+                continue;
+            }
+
+            for (int sectionY = boxMinY >> 4; sectionY <= boxMaxY >> 4; sectionY++) {
+                if (snapshot.isSectionEmpty(sectionY - (worldMinHeight >> 4))) {
+                    continue;
+                }
+                int minY = Math.max(boxMinY, sectionY << 4);
+                int maxY = Math.min(boxMaxY, (sectionY << 4) + 15);
+                for (int y = minY; y <= maxY; y++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        for (int x = minX; x <= maxX; x++) {
+                            Material type = snapshot.getBlockType(x & 15, y, z & 15);
+                            if (!filter.matches(type) || coveredBefore(b, x, y, z)) {
+                                continue;
+                            }
+                            if (local == null) {
+                                local = new long[MATERIALS.length];
+                            }
+                            local[type.ordinal()]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (local == null) {
+            return;
+        }
+        affectedChunks.incrementAndGet();
+        for (int i = 0; i < local.length; i++) {
+            if (local[i] != 0L) {
+                counts.addAndGet(i, local[i]);
+            }
+        }
+    }
+
+    private boolean coveredBefore(int box, int x, int y, int z) {
+        for (int i = 0; i < box; i++) {
+            if (boxes.get(i).contains(x, y, z)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the estimate once every chunk has been counted
+     */
+    MiningEstimate finish(long maxBlocks, double blocksPerSecond, long computeNanos) {
+        List<Material> found = new ArrayList<>();
+        long total = 0L;
+        for (int i = 0; i < MATERIALS.length; i++) {
+            long count = counts.get(i);
+            if (count != 0L) {
+                found.add(MATERIALS[i]);
+                total += count;
+            }
+        }
+        found.sort(Comparator.comparingLong((Material material) -> counts.get(material.ordinal())).reversed());
+
+        Map<Material, Long> materialCounts = new LinkedHashMap<>();
+        for (Material material : found) {
+            materialCounts.put(material, counts.get(material.ordinal()));
+        }
+        return new MiningEstimate(materialCounts, total, Math.min(total, maxBlocks),
+            affectedChunks.get(), chunkKeys.length, blocksPerSecond, computeNanos);
+    }
+}
@@ -0,0 +1,17 @@
+package com.duyanhggg.areaminer.mining;
+
+/**
+ * MiningMode - How a session writes the blocks it clears
+ */
+public enum MiningMode {
+    /**
+     * Write air straight into chunk sections without neighbour updates or physics; the default
+     * Light, heightmaps and the client update follow once per section, see {@link SectionWriter}.
+     */
+    BULK,
+    
+    /**
+     * Clear blocks one at a time with full physics, exactly like a player breaking them; opt-in
+     */
+    VANILLA_ACCURATE
+}
@@ -0,0 +1,172 @@
+package com.duyanhggg.areaminer.mining;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MiningPlan - Result of the planning phase
+ * Stores one 4096-bit mask per chunk section that contains at least one target
+ * block; sections without targets are not stored at all. While mining, visited
+ * targets are unmarked, so the masks always show what is left, and the sections
+ * touched are journaled in order for anyone streaming them to clients.
+ */
+public class MiningPlan {
+    
+    /** Longs needed for one bit per block of a 16x16x16 section */
+    public static final int MASK_LENGTH = 16 * 16 * 16 / 64;
+    
+    private final Map<Long, long[]> sectionMasks;
+    private int matchCount;
+    private int unmarkedCount;
+    private long[] journal;
+    private int journalLength;
+    
+    public MiningPlan() {
+        this.sectionMasks = new HashMap<>();
+        this.journal = new long[16];
+    }
+    
+    /**
+     * Mark a block as a mining target
+     */
+    public void mark(int x, int y, int z) {
+        long[] mask = sectionMasks.computeIfAbsent(sectionKey(x, y, z), key -> new long[MASK_LENGTH]);
+        int index = localIndex(x, y, z);
+        long bit = 1L << index;
+        if ((mask[index >> 6] & bit) == 0) {
+            mask[index >> 6] |= bit;
+            matchCount++;
+        }
+    }
+    
+    /**
+     * Unmark a visited target in a mask taken from {@link #getSectionMask}
+     * Returns true if the block was still marked.
+     */
+    public boolean unmark(long sectionKey, long[] mask, int x, int y, int z) {
+        int index = localIndex(x, y, z);
+        long bit = 1L << index;
+        if ((mask[index >> 6] & bit) == 0) {
+            return false;
+        }
+        mask[index >> 6] &= ~bit;
+        unmarkedCount++;
+        // The cursor finishes one section before the next, so consecutive repeats are the only ones
+        if (journalLength == 0 || journal[journalLength - 1] != sectionKey) {
+            if (journalLength == journal.length) {
+                journal = Arrays.copyOf(journal, journalLength * 2);
+            }
+            journal[journalLength++] = sectionKey;
+        }
+        return true;
+    }
+    
+    /**
+     * Get the target mask of a section, or null if the section has no targets
+     */
+    public long[] getSectionMask(long sectionKey) {
+        return sectionMasks.get(sectionKey);
+    }
+    
+    /**
+     * Move all sections of another plan into this one
+     */
+    public MiningPlan merge(MiningPlan other) {
+        if (other.sectionMasks.size() > sectionMasks.size()) {
+            return other.merge(this);
+        }
+        sectionMasks.putAll(other.sectionMasks);
+        matchCount += other.matchCount;
+        return this;
+    }
+    
+    /**
+     * Get the total number of target blocks
+     */
+    public int getMatchCount() {
+        return matchCount;
+    }
+    
+    /**
+     * Get the number of targets visited so far; changes whenever a mask does
+     */
+    public int getUnmarkedCount() {
+        return unmarkedCount;
+    }
+    
+    /**
+     * Get the number of journaled sections
+     */
+    public int getJournalLength() {
+        return journalLength;
+    }
+    
+    /**
+     * Get a journaled section key; the last entry may still be changing
+     */
+    public long getJournalEntry(int index) {
+        return journal[index];
+    }
+    
+    /**
+     * Get the keys of all sections that had targets when planned
+     */
+    public long[] getSectionKeys() {
+        return sectionMasks.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    /**
+     * Get the number of sections that contain at least one target
+     */
+    public int getSectionCount() {
+        return sectionMasks.size();
+    }
+    
+    /**
+     * Get the chunk columns that contain targets, in the order the cursor visits them
+     */
+    public long[] getChunkKeys() {
+        long[] keys = sectionMasks.keySet().stream()
+            .mapToLong(key -> BlockCursor.pack(BlockCursor.unpackX(key), 0, BlockCursor.unpackZ(key)))
+            .distinct()
+            .toArray();
+        // Cursor order: chunk X within a row, rows by chunk Z
+        long[] sortable = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sortable[i] = ((long) BlockCursor.unpackZ(keys[i]) << 32) | (BlockCursor.unpackX(keys[i]) + 0x80000000L);
+        }
+        Arrays.sort(sortable);
+        for (int i = 0; i < sortable.length; i++) {
+            keys[i] = BlockCursor.pack((int) (sortable[i] & 0xFFFFFFFFL) - 0x80000000, 0, (int) (sortable[i] >> 32));
+        }
+        return keys;
+    }
+    
+    /**
+     * Packed key of the section containing a block
+     */
+    public static long sectionKey(int x, int y, int z) {
+        return BlockCursor.pack(x >> 4, y >> 4, z >> 4);
+    }
+    
+    /**
+     * Index of a block inside its section mask (YZX order, matching vanilla section storage)
+     */
+    public static int localIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+    
+    /**
+     * Check if a block is marked in a section mask
+     */
+    public static boolean isMarked(long[] mask, int x, int y, int z) {
+        int index = localIndex(x, y, z);
+        return (mask[index >> 6] & (1L << index)) != 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("MiningPlan{targets=%d, sections=%d}", matchCount, sectionMasks.size());
+    }
+}
@@ -0,0 +1,255 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MiningPlanner - Builds a {@link MiningPlan} for one session off the main thread
+ * The main thread only takes chunk snapshots, a few per tick within the mining budget;
+ * each snapshot is handed to a fork-join pool for scanning as soon as it is taken and
+ * dropped once scanned, so only a bounded number of snapshots is alive at any time.
+ * Chunks whose palettes hold no target state, and empty sections, are skipped without
+ * reading a block. The per-chunk plans are merged once every chunk has been scanned.
+ */
+public class MiningPlanner {
+
+    /** Chunk plans merged by one fork-join leaf before it stops splitting */
+    private static final int CHUNKS_PER_TASK = 4;
+    /** Snapshots taken but not yet scanned; capturing pauses at this many */
+    private static final int MAX_PENDING_SCANS = 64;
+
+    private final BlockCursor bounds;
+    private final MaterialFilter filter;
+    private final BlockData[] paletteProbes;
+    private final int worldMinHeight;
+    private final int worldMaxHeight;
+    private final long[] chunkKeys;
+    private final ForkJoinTask<MiningPlan>[] chunkScans;
+    private final AtomicInteger chunksScanned;
+    private int chunksCaptured;
+    private ForkJoinTask<MiningPlan> scanTask;
+
+    @SuppressWarnings("unchecked")
+    public MiningPlanner(World world, BlockCursor bounds, MaterialFilter filter) {
+        this.bounds = bounds;
+        this.filter = filter;
+        this.paletteProbes = filter.getPaletteProbes();
+        this.worldMinHeight = world.getMinHeight();
+        this.worldMaxHeight = world.getMaxHeight();
+        this.chunkKeys = chunkKeysOf(bounds);
+        this.chunkScans = new ForkJoinTask[chunkKeys.length];
+        this.chunksScanned = new AtomicInteger();
+    }
+
+    /**
+     * Chunk columns the cursor still has to visit, in the order it visits them
+     * Columns before the cursor's current one are finished and left out
+     */
+    private static long[] chunkKeysOf(BlockCursor cursor) {
+        int minChunkX = cursor.getMinX() >> 4;
+        int maxChunkX = cursor.getMaxX() >> 4;
+        int minChunkZ = cursor.getMinZ() >> 4;
+        int maxChunkZ = cursor.getMaxZ() >> 4;
+        int width = maxChunkX - minChunkX + 1;
+        int skipped = 0;
+        if (cursor.hasNext()) {
+            long position = cursor.position();
+            skipped = ((BlockCursor.unpackZ(position) >> 4) - minChunkZ) * width
+                + (BlockCursor.unpackX(position) >> 4) - minChunkX;
+        }
+        long[] keys = new long[Math.max(0, width * (maxChunkZ - minChunkZ + 1) - skipped)];
+
+        int i = 0;
+        int column = 0;
+        for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                if (column++ >= skipped) {
+                    keys[i++] = BlockCursor.pack(chunkX, 0, chunkZ);
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Take chunk snapshots on the main thread until done or the deadline passes
+     * Chunks are loaded asynchronously by the prefetcher; capturing pauses at a chunk
+     * that is still loading, and while the pool is behind by too many snapshots. Each
+     * snapshot is submitted for scanning right away; the plans are merged after the last.
+     */
+    public void captureSnapshots(World world, ForkJoinPool pool, ChunkPrefetcher prefetcher, long deadlineNanos) {
+        while (chunksCaptured < chunkKeys.length) {
+            if (chunksCaptured - chunksScanned.get() >= MAX_PENDING_SCANS) {
+                return;
+            }
+            long key = chunkKeys[chunksCaptured];
+            int chunkX = BlockCursor.unpackX(key);
+            int chunkZ = BlockCursor.unpackZ(key);
+            if (prefetcher != null && !prefetcher.enter(chunkX, chunkZ)) {
+                return;
+            }
+            ChunkSnapshot snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+            chunkScans[chunksCaptured] = pool.submit(new ChunkScanTask(snapshot));
+            chunksCaptured++;
+
+            if (System.nanoTime() >= deadlineNanos) {
+                break;
+            }
+        }
+
+        if (chunksCaptured == chunkKeys.length && scanTask == null) {
+            if (prefetcher != null) {
+                // Snapshots are detached copies, so the chunks are no longer needed
+                prefetcher.releaseAll();
+            }
+            scanTask = pool.submit(new MergeTask(0, chunkScans.length));
+        }
+    }
+
+    /**
+     * Get the chunk columns this planner snapshots, in capture order
+     */
+    public long[] getChunkKeys() {
+        return chunkKeys.clone();
+    }
+
+    /**
+     * Check if the finished plan is ready to be collected
+     */
+    public boolean isDone() {
+        return scanTask != null && scanTask.isDone();
+    }
+
+    /**
+     * Get the finished plan; only valid once {@link #isDone()} returns true
+     */
+    public MiningPlan getPlan() {
+        return scanTask.join();
+    }
+
+    /**
+     * Planning progress from 0 to 100, counting snapshots and scans equally
+     */
+    public double getProgress() {
+        if (chunkKeys.length == 0) {
+            return 100.0;
+        }
+        return (chunksCaptured + chunksScanned.get()) * 50.0 / chunkKeys.length;
+    }
+
+    /**
+     * Stop the running scans and drop their snapshots
+     */
+    public void cancel() {
+        if (scanTask != null) {
+            scanTask.cancel(false);
+        }
+        for (int i = 0; i < chunksCaptured; i++) {
+            chunkScans[i].cancel(false);
+        }
+        Arrays.fill(chunkScans, null);
+    }
+
+    /**
+     * Scan one chunk snapshot into a plan
+     */
+    private MiningPlan scanChunk(ChunkSnapshot snapshot) {
+        MiningPlan plan = new MiningPlan();
+        int chunkMinX = snapshot.getX() << 4;
+        int chunkMinZ = snapshot.getZ() << 4;
+        int minX = Math.max(bounds.getMinX(), chunkMinX);
+        int maxX = Math.min(bounds.getMaxX(), chunkMinX + 15);
+        int minZ = Math.max(bounds.getMinZ(), chunkMinZ);
+        int maxZ = Math.min(bounds.getMaxZ(), chunkMinZ + 15);
+
+        // A palette without any target state rules the whole chunk out unread
+        if (MaterialFilter.mayContain(snapshot, paletteProbes)) {
+            scanSections(plan, snapshot, minX, maxX, minZ, maxZ);
+        }
+        return plan;
+    }
+
+    /**
+     * Scan the non-empty sections of one chunk that overlap the bounds
+     */
+    private void scanSections(MiningPlan plan, ChunkSnapshot snapshot, int minX, int maxX, int minZ, int maxZ) {
+        int minSectionY = Math.max(bounds.getMinY(), worldMinHeight) >> 4;
+        int maxSectionY = Math.min(bounds.getMaxY(), worldMaxHeight - 1) >> 4;
+        for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+            if (snapshot.isSectionEmpty(sectionY - (worldMinHeight >> 4))) {
+                continue;
+            }
+
+            int minY = Math.max(Math.max(bounds.getMinY(), worldMinHeight), sectionY << 4);
+            int maxY = Math.min(Math.min(bounds.getMaxY(), worldMaxHeight - 1), (sectionY << 4) + 15);
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        if (filter.matches(snapshot.getBlockType(x & 15, y, z & 15))) {
+                            plan.mark(x, y, z);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Fork-join task that scans one chunk and lets go of its snapshot once scanned
+     */
+    private class ChunkScanTask extends RecursiveTask<MiningPlan> {
+        private ChunkSnapshot snapshot;
+
+        ChunkScanTask(ChunkSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected MiningPlan compute() {
+            try {
+                return scanChunk(snapshot);
+            } finally {
+                snapshot = null;
+                chunksScanned.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Fork-join task that merges the chunk plans, split in halves down to a few chunks
+     */
+    private class MergeTask extends RecursiveTask<MiningPlan> {
+        private final int from;
+        private final int to;
+
+        MergeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected MiningPlan compute() {
+            if (to - from <= CHUNKS_PER_TASK) {
+                MiningPlan plan = new MiningPlan();
+                for (int i = from; i < to; i++) {
+                    plan = plan.merge(chunkScans[i].join());
+                    chunkScans[i] = null;
+                }
+                return plan;
+            }
+
+            int middle = (from + to) >>> 1;
+            MergeTask left = new MergeTask(from, middle);
+            left.fork();
+            MiningPlan right = new MergeTask(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.data.BlockData;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * RegionSnapshot - Original block states of everything one mining job cleared
+ * States are kept per chunk section as a small palette plus a packed array of palette
+ * indices, the same layout vanilla uses for section storage. Sections can be spilled to
+ * an append-only file to free memory; reading the snapshot back covers both.
+ * Not thread-safe; use from the main thread.
+ */
+public class RegionSnapshot {
+
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    private final UUID worldUuid;
+    private final Path spillFile;
+    private final Map<Long, Section> sections;
+    private Section lastSection;
+    private long memoryBytes;
+    private int blockCount;
+    private int spilledSections;
+    private boolean dropsDelivered;
+
+    public RegionSnapshot(UUID worldUuid, Path spillFile) {
+        this.worldUuid = worldUuid;
+        this.spillFile = spillFile;
+        this.sections = new HashMap<>();
+    }
+
+    /**
+     * Remember the state a block had before it was cleared
+     */
+    public void record(int x, int y, int z, BlockData state) {
+        long key = MiningPlan.sectionKey(x, y, z);
+        Section section = lastSection;
+        if (section == null || section.key != key) {
+            // The cursor finishes a section before moving on, so this lookup is rare
+            section = sections.computeIfAbsent(key, Section::new);
+            lastSection = section;
+        }
+
+        long before = section.memoryBytes();
+        if (section.set(MiningPlan.localIndex(x, y, z), state)) {
+            blockCount++;
+        }
+        memoryBytes += section.memoryBytes() - before;
+    }
+
+    /**
+     * Move every in-memory section to the spill file
+     */
+    public void spill() throws IOException {
+        if (sections.isEmpty()) {
+            return;
+        }
+
+        Files.createDirectories(spillFile.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)))) {
+            for (Section section : sections.values()) {
+                section.write(out);
+            }
+        }
+        spilledSections += sections.size();
+        sections.clear();
+        lastSection = null;
+        memoryBytes = 0L;
+    }
+
+    /**
+     * Read all sections back, spilled ones first; the snapshot must not change while reading
+     */
+    public SectionReader openReader() throws IOException {
+        DataInputStream in = spilledSections == 0 ? null
+            : new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)));
+        return new SectionReader(in, spilledSections, new ArrayList<>(sections.values()).iterator());
+    }
+
+    /**
+     * Delete the spill file
+     */
+    public void discard() {
+        sections.clear();
+        lastSection = null;
+        memoryBytes = 0L;
+        spilledSections = 0;
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            Bukkit.getLogger().warning("Could not delete undo snapshot " + spillFile + ": " + e);
+        }
+    }
+
+    public UUID getWorldUuid() {
+        return worldUuid;
+    }
+
+    /**
+     * Get the estimated heap used by sections that are not spilled
+     */
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public boolean isEmpty() {
+        return blockCount == 0;
+    }
+
+    /**
+     * Note that the job handed the items of the cleared blocks out, so undoing it would duplicate them
+     */
+    public void markDropsDelivered() {
+        dropsDelivered = true;
+    }
+
+    public boolean hasDeliveredDrops() {
+        return dropsDelivered;
+    }
+
+    /**
+     * Sequential reader over a snapshot's sections
+     */
+    public static final class SectionReader implements Iterator<Section>, Closeable {
+
+        private final DataInputStream in;
+        private final Iterator<Section> inMemory;
+        private int remaining;
+
+        private SectionReader(DataInputStream in, int spilled, Iterator<Section> inMemory) {
+            this.in = in;
+            this.remaining = spilled;
+            this.inMemory = inMemory;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 || inMemory.hasNext();
+        }
+
+        @Override
+        public Section next() {
+            if (remaining == 0) {
+                return inMemory.next();
+            }
+            try {
+                remaining--;
+                return Section.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * Palette-compressed states of one chunk section; index 0 means "not captured"
+     */
+    public static final class Section {
+
+        private final long key;
+        private final List<BlockData> palette;
+        private final Map<BlockData, Integer> ids;
+        private int bits;
+        private long[] data;
+
+        private Section(long key) {
+            this.key = key;
+            this.palette = new ArrayList<>(4);
+            this.ids = new HashMap<>();
+            this.bits = 1;
+            this.data = new long[SECTION_VOLUME / 64];
+        }
+
+        /**
+         * Get the packed key of this section
+         */
+        public long getKey() {
+            return key;
+        }
+
+        /**
+         * Get the state captured at a local index, or null if nothing was captured there
+         */
+        public BlockData get(int index) {
+            int id = read(index);
+            return id == 0 ? null : palette.get(id - 1);
+        }
+
+        private boolean set(int index, BlockData state) {
+            Integer id = ids.get(state);
+            if (id == null) {
+                palette.add(state);
+                id = palette.size();
+                ids.put(state, id);
+                if (id >= 1 << bits) {
+                    resize(bits + 1);
+                }
+            }
+            boolean added = read(index) == 0;
+            write(index, id);
+            return added;
+        }
+
+        private int read(int index) {
+            int perLong = 64 / bits;
+            long word = data[index / perLong];
+            return (int) ((word >>> ((index % perLong) * bits)) & ((1L << bits) - 1));
+        }
+
+        private void write(int index, int id) {
+            int perLong = 64 / bits;
+            int shift = (index % perLong) * bits;
+            long mask = ((1L << bits) - 1) << shift;
+            data[index / perLong] = (data[index / perLong] & ~mask) | ((long) id << shift);
+        }
+
+        private void resize(int newBits) {
+            int[] values = new int[SECTION_VOLUME];
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                values[i] = read(i);
+            }
+            bits = newBits;
+            int perLong = 64 / bits;
+            data = new long[(SECTION_VOLUME + perLong - 1) / perLong];
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                if (values[i] != 0) {
+                    write(i, values[i]);
+                }
+            }
+        }
+
+        private long memoryBytes() {
+            return 64L + data.length * 8L + palette.size() * 48L;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeLong(key);
+            out.writeInt(palette.size());
+            for (BlockData state : palette) {
+                out.writeUTF(state.getAsString());
+            }
+            out.writeByte(bits);
+            out.writeInt(data.length);
+            for (long word : data) {
+                out.writeLong(word);
+            }
+        }
+
+        private static Section read(DataInputStream in) throws IOException {
+            Section section = new Section(in.readLong());
+            int paletteSize = in.readInt();
+            for (int i = 0; i < paletteSize; i++) {
+                BlockData state = Bukkit.createBlockData(in.readUTF());
+                section.palette.add(state);
+                section.ids.put(state, i + 1);
+            }
+            section.bits = in.readByte();
+            section.data = new long[in.readInt()];
+            for (int i = 0; i < section.data.length; i++) {
+                section.data[i] = in.readLong();
+            }
+            return section;
+        }
+    }
+}
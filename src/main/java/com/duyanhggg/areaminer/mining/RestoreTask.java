@@ -0,0 +1,143 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * RestoreTask - Applies an undo or redo of one snapshot a few blocks at a time
+ * Undo puts captured states back where the block is still air; redo clears them again
+ * where the block still has the captured state. Blocks changed by someone else since
+ * are left alone. Runs on the main thread within the controller's tick budget.
+ */
+public class RestoreTask {
+
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    private final UUID playerUuid;
+    private final RegionSnapshot snapshot;
+    private final boolean undo;
+    private final World world;
+    private RegionSnapshot.SectionReader reader;
+    private RegionSnapshot.Section section;
+    private int index;
+    private int blocksChanged;
+    private boolean done;
+
+    public RestoreTask(UUID playerUuid, RegionSnapshot snapshot, boolean undo) {
+        this.playerUuid = playerUuid;
+        this.snapshot = snapshot;
+        this.undo = undo;
+        this.world = Bukkit.getWorld(snapshot.getWorldUuid());
+    }
+
+    /**
+     * Apply blocks until done, the deadline passes or the block limit is reached
+     * Returns the number of blocks changed
+     */
+    public int run(long deadlineNanos, int maxBlocks) {
+        if (done) {
+            return 0;
+        }
+        if (world == null) {
+            finish();
+            return 0;
+        }
+
+        int changed = 0;
+        int sinceClockCheck = 0;
+        try {
+            if (reader == null) {
+                reader = snapshot.openReader();
+            }
+            while (changed < maxBlocks) {
+                if (section == null || index == SECTION_VOLUME) {
+                    if (!reader.hasNext()) {
+                        finish();
+                        break;
+                    }
+                    section = reader.next();
+                    index = 0;
+                }
+
+                BlockData state = section.get(index);
+                if (state != null && apply(state)) {
+                    changed++;
+                }
+                index++;
+
+                if (++sinceClockCheck >= 256) {
+                    sinceClockCheck = 0;
+                    if (System.nanoTime() >= deadlineNanos) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            Bukkit.getLogger().warning("Could not read undo snapshot for " + playerUuid + ": " + e);
+            finish();
+        }
+        blocksChanged += changed;
+        return changed;
+    }
+
+    private boolean apply(BlockData state) {
+        long key = section.getKey();
+        int x = (BlockCursor.unpackX(key) << 4) | (index & 15);
+        int y = (BlockCursor.unpackY(key) << 4) | (index >> 8);
+        int z = (BlockCursor.unpackZ(key) << 4) | ((index >> 4) & 15);
+        Block block = world.getBlockAt(x, y, z);
+
+        if (undo) {
+            if (!block.getType().isAir()) {
+                return false;
+            }
+            block.setBlockData(state, false);
+        } else {
+            if (!block.getBlockData().equals(state)) {
+                return false;
+            }
+            block.setType(Material.AIR, false);
+        }
+        return true;
+    }
+
+    private void finish() {
+        done = true;
+        section = null;
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+                // Read-only stream
+            }
+            reader = null;
+        }
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public boolean isUndo() {
+        return undo;
+    }
+
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public RegionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int getBlocksChanged() {
+        return blocksChanged;
+    }
+}
@@ -0,0 +1,139 @@
+package com.duyanhggg.areaminer.mining;
+
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.network.packet.s2c.play.ChunkDeltaUpdateS2CPacket;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.chunk.light.LightingProvider;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * SectionWriter - Clears blocks for bulk mining straight into chunk sections
+ * Writes skip neighbour updates and physics. Everything that follows a write is batched per
+ * section: the heightmaps once per column, the light checks in one pass, and one section
+ * update packet to the players watching the chunk. Call {@link #flush()} when done.
+ * Main thread only.
+ */
+public class SectionWriter {
+
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final ServerWorld world;
+    private final LightingProvider lighting;
+    private final ShortSet changed;
+    // Highest cleared Y per column of the open section, or Integer.MIN_VALUE if none
+    private final int[] columnTops;
+    private final BlockPos.Mutable pos;
+    private WorldChunk chunk;
+    private ChunkSection section;
+    private ChunkSectionPos sectionPos;
+    private boolean sectionWasEmpty;
+
+    private SectionWriter(ServerWorld world) {
+        this.world = world;
+        this.lighting = world.getChunkManager().getLightingProvider();
+        this.changed = new ShortOpenHashSet();
+        this.columnTops = new int[256];
+        this.pos = new BlockPos.Mutable();
+        Arrays.fill(columnTops, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Get a writer for a world, or null if the server has no matching world
+     */
+    public static SectionWriter forWorld(MinecraftServer server, World world) {
+        if (server == null) {
+            return null;
+        }
+        NamespacedKey key = world.getKey();
+        ServerWorld serverWorld = server.getWorld(RegistryKey.of(RegistryKeys.WORLD, Identifier.of(key.getNamespace(), key.getKey())));
+        return serverWorld == null ? null : new SectionWriter(serverWorld);
+    }
+
+    /**
+     * Clear one block to air; moving to another section flushes the previous one
+     */
+    public void clear(int x, int y, int z) {
+        ChunkSectionPos target = ChunkSectionPos.from(x >> 4, y >> 4, z >> 4);
+        if (!target.equals(sectionPos)) {
+            flush();
+            open(target);
+        }
+
+        BlockState previous = section.setBlockState(x & 15, y & 15, z & 15, AIR, false);
+        if (previous.isAir()) {
+            return;
+        }
+        pos.set(x, y, z);
+        if (previous.hasBlockEntity()) {
+            chunk.removeBlockEntity(pos);
+        }
+        changed.add(ChunkSectionPos.packLocal(pos));
+        int column = (z & 15) << 4 | (x & 15);
+        columnTops[column] = Math.max(columnTops[column], y);
+    }
+
+    /**
+     * Finish the open section: heightmaps, light and one update packet for everything cleared in it
+     */
+    public void flush() {
+        if (section == null) {
+            return;
+        }
+        if (!changed.isEmpty()) {
+            // A heightmap only moves when its top block goes, so each column is checked once from its highest clear
+            for (int column = 0; column < columnTops.length; column++) {
+                int top = columnTops[column];
+                if (top == Integer.MIN_VALUE) {
+                    continue;
+                }
+                for (Map.Entry<Heightmap.Type, Heightmap> heightmap : chunk.getHeightmaps()) {
+                    heightmap.getValue().trackUpdate(column & 15, top, column >> 4, AIR);
+                }
+            }
+
+            if (!sectionWasEmpty && section.isEmpty()) {
+                lighting.setSectionStatus(sectionPos, true);
+            }
+            for (short local : changed) {
+                lighting.checkBlock(pos.set(sectionPos.unpackBlockX(local), sectionPos.unpackBlockY(local), sectionPos.unpackBlockZ(local)));
+            }
+            chunk.markNeedsSaving();
+
+            ChunkDeltaUpdateS2CPacket packet = new ChunkDeltaUpdateS2CPacket(sectionPos, changed, section);
+            for (ServerPlayerEntity player : PlayerLookup.tracking(world, sectionPos.toChunkPos())) {
+                player.networkHandler.sendPacket(packet);
+            }
+        }
+
+        changed.clear();
+        Arrays.fill(columnTops, Integer.MIN_VALUE);
+        chunk = null;
+        section = null;
+        sectionPos = null;
+    }
+
+    private void open(ChunkSectionPos target) {
+        chunk = world.getChunk(target.getSectionX(), target.getSectionZ());
+        section = chunk.getSection(chunk.sectionCoordToIndex(target.getSectionY()));
+        sectionPos = target;
+        sectionWasEmpty = section.isEmpty();
+    }
+}
@@ -0,0 +1,254 @@
+package com.duyanhggg.areaminer.mining;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * SessionJournal - Crash-safe, memory-mapped progress journal for one mining session
+ * The file holds a header describing the job, followed by a ring of fixed-size
+ * checkpoint records. Each record carries a sequence number and CRC, so after a crash
+ * the newest intact record wins and a torn write only loses that one checkpoint.
+ * Checkpoints are plain memory writes on the main thread; syncing to disk is done
+ * in batches by {@link #force()} from a background thread.
+ */
+public class SessionJournal implements Closeable {
+
+    private static final int MAGIC = 0x414D4A31; // "AMJ1"
+    private static final int VERSION = 1;
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORD_CAPACITY = 1024;
+    private static final int HEADER_ALIGNMENT = 64;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int recordsOffset;
+    private int sequence;
+    private volatile boolean dirty;
+    private boolean closed;
+
+    private SessionJournal(Path file, FileChannel channel, int recordsOffset, int sequence) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.recordsOffset = recordsOffset;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, recordsOffset + (long) RECORD_CAPACITY * RECORD_SIZE);
+        this.sequence = sequence;
+    }
+
+    /**
+     * Create a new journal for a job, replacing any existing file
+     */
+    public static SessionJournal create(Path file, JournalState job) throws IOException {
+        Files.createDirectories(file.getParent());
+        byte[] header = encodeHeader(job);
+        int recordsOffset = align(header.length);
+
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.write(ByteBuffer.wrap(header), 0);
+            SessionJournal journal = new SessionJournal(file, channel, recordsOffset, 0);
+            journal.checkpoint(job.position(), job.blocksScanned(), job.blocksMined());
+            journal.force();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reopen an existing journal to keep appending after its last checkpoint
+     */
+    public static SessionJournal reopen(Path file, JournalState state) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new SessionJournal(file, channel, state.recordsOffset(), state.sequence());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the job description and newest intact checkpoint from a journal file
+     */
+    public static JournalState read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a mining journal: " + file);
+        }
+        int headerLength = in.readInt();
+        if (headerLength <= 0 || headerLength > bytes.length - 4) {
+            throw new IOException("Corrupt journal header: " + file);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, headerLength);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, headerLength, 4).getInt()) {
+            throw new IOException("Journal header checksum mismatch: " + file);
+        }
+
+        UUID playerUuid = new UUID(in.readLong(), in.readLong());
+        String playerName = in.readUTF();
+        UUID worldUuid = new UUID(in.readLong(), in.readLong());
+        int[] bounds = new int[6];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = in.readInt();
+        }
+        MiningMode mode = MiningMode.values()[in.readByte()];
+        int weight = in.readInt();
+        int materialCount = in.readInt();
+        Set<String> materials = new LinkedHashSet<>();
+        for (int i = 0; i < materialCount; i++) {
+            materials.add(in.readUTF());
+        }
+
+        int recordsOffset = align(headerLength + 4);
+        ByteBuffer records = ByteBuffer.wrap(bytes);
+        long position = BlockCursor.pack(bounds[0], bounds[1], bounds[2]);
+        long scanned = 0L;
+        int mined = 0;
+        int newest = -1;
+        for (int offset = recordsOffset; offset + RECORD_SIZE <= bytes.length; offset += RECORD_SIZE) {
+            int recordSequence = records.getInt(offset + 20);
+            if (recordSequence > newest && checksum(records, offset) == records.getInt(offset + 24)) {
+                newest = recordSequence;
+                position = records.getLong(offset);
+                scanned = records.getLong(offset + 8);
+                mined = records.getInt(offset + 16);
+            }
+        }
+
+        return new JournalState(playerUuid, playerName, worldUuid,
+            bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5],
+            mode, weight, materials, position, scanned, mined, recordsOffset, newest + 1);
+    }
+
+    /**
+     * Append a checkpoint; only touches mapped memory, so it is cheap enough for the tick thread
+     */
+    public void checkpoint(long position, long blocksScanned, int blocksMined) {
+        if (closed) {
+            return;
+        }
+        int offset = recordsOffset + (sequence % RECORD_CAPACITY) * RECORD_SIZE;
+        buffer.putLong(offset, position);
+        buffer.putLong(offset + 8, blocksScanned);
+        buffer.putInt(offset + 16, blocksMined);
+        buffer.putInt(offset + 20, sequence);
+        buffer.putInt(offset + 24, checksum(buffer, offset));
+        sequence++;
+        dirty = true;
+    }
+
+    /**
+     * Sync pending checkpoints to disk if anything changed since the last call
+     */
+    public synchronized void force() {
+        if (dirty && !closed) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+    /**
+     * Sync and close the journal, keeping the file so the session can resume
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Close the journal and delete its file once the session is finished
+     */
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private static int checksum(ByteBuffer records, int offset) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < 24; i++) {
+            crc.update(records.get(offset + i));
+        }
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encodeHeader(JournalState job) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(0); // Header length, patched below
+        out.writeLong(job.playerUuid().getMostSignificantBits());
+        out.writeLong(job.playerUuid().getLeastSignificantBits());
+        out.writeUTF(job.playerName());
+        out.writeLong(job.worldUuid().getMostSignificantBits());
+        out.writeLong(job.worldUuid().getLeastSignificantBits());
+        out.writeInt(job.minX());
+        out.writeInt(job.minY());
+        out.writeInt(job.minZ());
+        out.writeInt(job.maxX());
+        out.writeInt(job.maxY());
+        out.writeInt(job.maxZ());
+        out.writeByte(job.mode().ordinal());
+        out.writeInt(job.weight());
+        out.writeInt(job.materials().size());
+        for (String material : job.materials()) {
+            out.writeUTF(material);
+        }
+        out.flush();
+
+        byte[] header = bytes.toByteArray();
+        ByteBuffer.wrap(header).putInt(8, header.length);
+        CRC32 crc = new CRC32();
+        crc.update(header);
+        return ByteBuffer.allocate(header.length + 4).put(header).putInt((int) crc.getValue()).array();
+    }
+
+    private static int align(int length) {
+        return (length + HEADER_ALIGNMENT - 1) / HEADER_ALIGNMENT * HEADER_ALIGNMENT;
+    }
+
+    /**
+     * Job description plus the newest checkpoint read back from a journal
+     */
+    public record JournalState(UUID playerUuid, String playerName, UUID worldUuid,
+                               int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                               MiningMode mode, int weight, Set<String> materials,
+                               long position, long blocksScanned, int blocksMined,
+                               int recordsOffset, int sequence) {
+
+        /**
+         * Describe a new job that has not made any progress yet
+         */
+        public static JournalState start(UUID playerUuid, String playerName, UUID worldUuid, BlockCursor cursor,
+                                         MiningMode mode, int weight, Set<String> materials) {
+            return new JournalState(playerUuid, playerName, worldUuid,
+                cursor.getMinX(), cursor.getMinY(), cursor.getMinZ(),
+                cursor.getMaxX(), cursor.getMaxY(), cursor.getMaxZ(),
+                mode, weight, materials, cursor.position(), 0L, 0, 0, 0);
+        }
+    }
+}
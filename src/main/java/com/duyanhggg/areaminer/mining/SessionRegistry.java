@@ -0,0 +1,108 @@
+package com.duyanhggg.areaminer.mining;
+
+import com.duyanhggg.areaminer.mining.MiningController.MiningSession;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SessionRegistry - Active mining sessions, indexed by player UUID and by player name
+ * Reads never lock: both indexes are concurrent maps and the session list is an
+ * immutable snapshot republished on every change, so iterating it copies nothing.
+ * Writes are rare and serialized, which keeps the name index and the snapshot in
+ * step with the UUID index.
+ */
+public class SessionRegistry {
+
+    private static final MiningSession[] EMPTY = new MiningSession[0];
+
+    private final Map<UUID, MiningSession> byUuid;
+    private final Map<String, MiningSession> byName;
+    private volatile List<MiningSession> snapshot;
+
+    public SessionRegistry() {
+        this.byUuid = new ConcurrentHashMap<>();
+        this.byName = new ConcurrentHashMap<>();
+        this.snapshot = Collections.emptyList();
+    }
+
+    public MiningSession get(UUID playerUuid) {
+        return byUuid.get(playerUuid);
+    }
+
+    /**
+     * Look a session up by player name, ignoring case
+     */
+    public MiningSession getByName(String playerName) {
+        return byName.get(nameKey(playerName));
+    }
+
+    public boolean contains(UUID playerUuid) {
+        return byUuid.containsKey(playerUuid);
+    }
+
+    /**
+     * Add a session unless its player already has one
+     * Returns the existing session, or null if this one was added.
+     */
+    public synchronized MiningSession putIfAbsent(MiningSession session) {
+        MiningSession existing = byUuid.get(session.getPlayerUuid());
+        if (existing != null) {
+            return existing;
+        }
+
+        byName.put(nameKey(session.getPlayerName()), session);
+        byUuid.put(session.getPlayerUuid(), session);
+        publish();
+        return null;
+    }
+
+    /**
+     * Remove a player's session; returns it, or null if there was none
+     */
+    public synchronized MiningSession remove(UUID playerUuid) {
+        MiningSession session = byUuid.remove(playerUuid);
+        if (session != null) {
+            // Another player may have taken the name since, so only drop our own entry
+            byName.remove(nameKey(session.getPlayerName()), session);
+            publish();
+        }
+        return session;
+    }
+
+    /**
+     * Immutable view of the sessions as of the last change
+     * Safe to iterate from any thread; indexed access allocates nothing.
+     */
+    public List<MiningSession> snapshot() {
+        return snapshot;
+    }
+
+    public int size() {
+        return byUuid.size();
+    }
+
+    public boolean isEmpty() {
+        return byUuid.isEmpty();
+    }
+
+    public synchronized void clear() {
+        byUuid.clear();
+        byName.clear();
+        snapshot = Collections.emptyList();
+    }
+
+    private void publish() {
+        MiningSession[] sessions = byUuid.values().toArray(EMPTY);
+        snapshot = Collections.unmodifiableList(Arrays.asList(sessions));
+    }
+
+    private static String nameKey(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,92 @@
+package com.duyanhggg.areaminer.mining;
+
+/**
+ * TickBudget - Adaptive per-tick time budget shared by all mining sessions
+ * Grows additively while the server keeps up with its target tick time and
+ * halves as soon as the smoothed tick time goes over it
+ */
+public class TickBudget {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double OVERLOAD_TOLERANCE = 1.05;
+
+    private final double targetTickMillis;
+    private final long minBudgetNanos;
+    private final long maxBudgetNanos;
+    private final long increaseStepNanos;
+    private long budgetNanos;
+    private double smoothedTickMillis;
+    private long lastSpentNanos;
+
+    public TickBudget(double targetTickMillis, long minBudgetNanos, long maxBudgetNanos,
+                      long initialBudgetNanos, long increaseStepNanos) {
+        if (minBudgetNanos <= 0 || maxBudgetNanos < minBudgetNanos) {
+            throw new IllegalArgumentException("Invalid budget range: " + minBudgetNanos + ".." + maxBudgetNanos);
+        }
+        this.targetTickMillis = targetTickMillis;
+        this.minBudgetNanos = minBudgetNanos;
+        this.maxBudgetNanos = maxBudgetNanos;
+        this.increaseStepNanos = increaseStepNanos;
+        this.budgetNanos = clamp(initialBudgetNanos);
+        this.smoothedTickMillis = targetTickMillis;
+    }
+
+    /**
+     * Budget tuned for a 20 TPS server: 1-20ms per tick, starting at 5ms
+     */
+    public static TickBudget defaults() {
+        return new TickBudget(50.0, 1_000_000L, 20_000_000L, 5_000_000L, 500_000L);
+    }
+
+    /**
+     * Feed the latest observed tick time and adjust the budget
+     */
+    public void update(double tickMillis) {
+        if (tickMillis <= 0 || Double.isNaN(tickMillis)) {
+            return;
+        }
+        smoothedTickMillis += (tickMillis - smoothedTickMillis) * SMOOTHING;
+
+        if (smoothedTickMillis > targetTickMillis * OVERLOAD_TOLERANCE) {
+            budgetNanos = clamp(budgetNanos / 2);
+        } else {
+            budgetNanos = clamp(budgetNanos + increaseStepNanos);
+        }
+    }
+
+    /**
+     * Record how much of the budget was actually used this tick
+     */
+    public void recordSpent(long spentNanos) {
+        this.lastSpentNanos = spentNanos;
+    }
+
+    /**
+     * Forget the tick history, e.g. after mining was idle for a while
+     */
+    public void resetHistory() {
+        this.smoothedTickMillis = targetTickMillis;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public long getLastSpentNanos() {
+        return lastSpentNanos;
+    }
+
+    public double getSmoothedTickMillis() {
+        return smoothedTickMillis;
+    }
+
+    private long clamp(long nanos) {
+        return Math.max(minBudgetNanos, Math.min(maxBudgetNanos, nanos));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TickBudget{budget=%.2fms, spent=%.2fms, tick=%.2fms}",
+            budgetNanos / 1_000_000.0, lastSpentNanos / 1_000_000.0, smoothedTickMillis);
+    }
+}
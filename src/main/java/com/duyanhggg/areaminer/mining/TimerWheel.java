@@ -0,0 +1,211 @@
+package com.duyanhggg.areaminer.mining;
+
+import java.util.function.Consumer;
+
+/**
+ * TimerWheel - Hierarchical timing wheel counted in server ticks
+ * Four levels of 64 slots cover about 194 days at 20 TPS; later deadlines wait in the
+ * top level and are re-checked as it turns. Timers are intrusive list nodes, so
+ * scheduling and cancelling are O(1) and each timer is cascaded at most once per level.
+ * Server thread only.
+ */
+public class TimerWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Timer<T>[][] wheels;
+    private long now;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel() {
+        this.wheels = new Timer[LEVELS][SLOTS];
+    }
+
+    /**
+     * Arm a timer to fire at an absolute tick, re-arming it if it was already scheduled
+     * Deadlines that have already passed fire on the next advance.
+     */
+    public void schedule(Timer<T> timer, long deadlineTick) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        }
+        timer.deadline = deadlineTick;
+        // The current tick has been processed, so anything due now or earlier fires next tick
+        insert(timer, 1L);
+        size++;
+    }
+
+    /**
+     * Disarm a timer; does nothing if it is not scheduled
+     */
+    public void cancel(Timer<T> timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        }
+    }
+
+    /**
+     * Move the wheel to a tick and hand every timer due by then to the callback
+     * Fired timers are disarmed before the callback runs, so it may schedule them again.
+     */
+    public void advance(long tick, Consumer<Timer<T>> onExpired) {
+        if (size == 0) {
+            now = Math.max(now, tick);
+            return;
+        }
+
+        while (now < tick) {
+            now++;
+            int slot = (int) (now & SLOT_MASK);
+            if (slot == 0) {
+                cascade(1);
+            }
+
+            // Pop from the head each time: a callback may cancel other timers in this slot
+            Timer<T> timer;
+            while ((timer = wheels[0][slot]) != null) {
+                unlink(timer);
+                if (timer.deadline <= now) {
+                    onExpired.accept(timer);
+                } else {
+                    // Clamped beyond the wheel's range; place it again from here
+                    insert(timer, 1L);
+                    size++;
+                }
+            }
+        }
+    }
+
+    public long getTick() {
+        return now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Drop every timer without firing it
+     */
+    public void clear() {
+        for (Timer<T>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timer<T> timer = wheel[slot];
+                while (timer != null) {
+                    Timer<T> next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    timer.level = -1;
+                    timer = next;
+                }
+                wheel[slot] = null;
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Redistribute the current slot of a level into the levels below it
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int slot = (int) ((now >>> (SLOT_BITS * level)) & SLOT_MASK);
+        if (slot == 0) {
+            cascade(level + 1);
+        }
+
+        Timer<T> timer = wheels[level][slot];
+        wheels[level][slot] = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            timer.level = -1;
+            // Timers due this very tick land in the level 0 slot about to be processed
+            insert(timer, 0L);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer<T> timer, long minDelay) {
+        long when = now + Math.max(minDelay, Math.min(timer.deadline - now, MAX_DELAY));
+        int level = 0;
+        while (level < LEVELS - 1 && (when - now) >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((when >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Timer<T> head = wheels[level][slot];
+        timer.next = head;
+        timer.prev = null;
+        if (head != null) {
+            head.prev = timer;
+        }
+        wheels[level][slot] = timer;
+        timer.level = level;
+        timer.slot = slot;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            wheels[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+        size--;
+    }
+
+    /**
+     * One armable timeout; owners keep their timers and re-arm them instead of allocating
+     */
+    public static final class Timer<T> {
+        private final T owner;
+        private final int kind;
+        private long deadline;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int level = -1;
+        private int slot;
+
+        public Timer(T owner, int kind) {
+            this.owner = owner;
+            this.kind = kind;
+        }
+
+        public T getOwner() {
+            return owner;
+        }
+
+        /**
+         * Caller-defined tag telling timers of the same owner apart
+         */
+        public int getKind() {
+            return kind;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+}
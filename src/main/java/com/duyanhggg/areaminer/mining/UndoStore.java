@@ -0,0 +1,175 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * UndoStore - Per-player undo and redo stacks of mining snapshots
+ * Keeps the newest {@code maxDepth} jobs per player. When the snapshots held in memory
+ * exceed the memory limit, the oldest ones are spilled to disk first.
+ * Not thread-safe; use from the main thread.
+ */
+public class UndoStore {
+
+    private final Map<UUID, History> histories;
+    private final int maxDepth;
+    private final long memoryLimitBytes;
+    private Path directory;
+    private long nextId;
+
+    public UndoStore(Path directory, int maxDepth, long memoryLimitBytes) {
+        this.histories = new HashMap<>();
+        this.directory = directory;
+        this.maxDepth = maxDepth;
+        this.memoryLimitBytes = memoryLimitBytes;
+    }
+
+    /**
+     * Start a snapshot for a new job; it becomes the player's newest undo entry and clears redo
+     */
+    public RegionSnapshot begin(UUID playerUuid, UUID worldUuid) {
+        History history = histories.computeIfAbsent(playerUuid, uuid -> new History());
+        history.redo.forEach(RegionSnapshot::discard);
+        history.redo.clear();
+
+        RegionSnapshot snapshot = new RegionSnapshot(worldUuid,
+            directory.resolve(playerUuid + "-" + nextId++ + ".snapshot"));
+        history.undo.push(snapshot);
+        while (history.undo.size() > maxDepth) {
+            history.undo.removeLast().discard();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Take the newest undo entry, or null if there is nothing to undo
+     */
+    public RegionSnapshot popUndo(UUID playerUuid) {
+        return pop(playerUuid, true);
+    }
+
+    /**
+     * Get the newest undo entry without taking it, or null if there is nothing to undo
+     */
+    public RegionSnapshot peekUndo(UUID playerUuid) {
+        History history = histories.get(playerUuid);
+        return history == null ? null : history.undo.peek();
+    }
+
+    /**
+     * Take the newest redo entry, or null if there is nothing to redo
+     */
+    public RegionSnapshot popRedo(UUID playerUuid) {
+        return pop(playerUuid, false);
+    }
+
+    /**
+     * Put a snapshot back after it was applied: an undone job can be redone and vice versa
+     */
+    public void pushApplied(UUID playerUuid, RegionSnapshot snapshot, boolean wasUndo) {
+        History history = histories.computeIfAbsent(playerUuid, uuid -> new History());
+        (wasUndo ? history.redo : history.undo).push(snapshot);
+    }
+
+    /**
+     * Drop a snapshot that recorded nothing, so it does not take an undo slot
+     */
+    public void discardIfEmpty(UUID playerUuid, RegionSnapshot snapshot) {
+        History history = histories.get(playerUuid);
+        if (history != null && snapshot.isEmpty() && history.undo.remove(snapshot)) {
+            snapshot.discard();
+        }
+    }
+
+    /**
+     * Spill the oldest snapshots until the in-memory total is under the limit
+     */
+    public void enforceMemoryLimit() {
+        long total = 0L;
+        List<RegionSnapshot> oldestFirst = new ArrayList<>();
+        for (History history : histories.values()) {
+            history.undo.descendingIterator().forEachRemaining(oldestFirst::add);
+            history.redo.descendingIterator().forEachRemaining(oldestFirst::add);
+        }
+        for (RegionSnapshot snapshot : oldestFirst) {
+            total += snapshot.getMemoryBytes();
+        }
+
+        // Histories are not ordered against each other, so "oldest" is per player
+        Iterator<RegionSnapshot> iterator = oldestFirst.iterator();
+        while (total > memoryLimitBytes && iterator.hasNext()) {
+            RegionSnapshot snapshot = iterator.next();
+            long bytes = snapshot.getMemoryBytes();
+            if (bytes == 0L) {
+                continue;
+            }
+            try {
+                snapshot.spill();
+                total -= bytes;
+            } catch (IOException e) {
+                Bukkit.getLogger().warning("Could not spill undo snapshot to " + directory + ": " + e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delete spill files left behind by a previous run; snapshots do not survive restarts
+     */
+    public void purgeDirectory() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.snapshot")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            Bukkit.getLogger().warning("Could not clean undo directory " + directory + ": " + e);
+        }
+    }
+
+    public void setDirectory(Path directory) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+    }
+
+    public int getUndoDepth(UUID playerUuid) {
+        History history = histories.get(playerUuid);
+        return history == null ? 0 : history.undo.size();
+    }
+
+    public int getRedoDepth(UUID playerUuid) {
+        History history = histories.get(playerUuid);
+        return history == null ? 0 : history.redo.size();
+    }
+
+    /**
+     * Discard all snapshots and their spill files
+     */
+    public void clear() {
+        for (History history : histories.values()) {
+            history.undo.forEach(RegionSnapshot::discard);
+            history.redo.forEach(RegionSnapshot::discard);
+        }
+        histories.clear();
+    }
+
+    private RegionSnapshot pop(UUID playerUuid, boolean undo) {
+        History history = histories.get(playerUuid);
+        if (history == null) {
+            return null;
+        }
+        Deque<RegionSnapshot> stack = undo ? history.undo : history.redo;
+        return stack.poll();
+    }
+
+    private static final class History {
+        private final Deque<RegionSnapshot> undo = new ArrayDeque<>();
+        private final Deque<RegionSnapshot> redo = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,129 @@
+package com.duyanhggg.areaminer.mining;
+
+import com.duyanhggg.areaminer.mining.MiningController.MiningSession;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * WorldQueue - Run queue of the mining sessions in one world
+ * The tick engine keeps one queue per world and drops it once it runs empty, so
+ * worlds without sessions are never visited. A queue whose world is unloaded is
+ * parked: its sessions keep their state and cost nothing until the world returns.
+ * Server thread only.
+ */
+class WorldQueue {
+
+    private final UUID worldUid;
+    private final List<MiningSession> sessions;
+    private World world;
+    private int roundRobinIndex;
+
+    WorldQueue(UUID worldUid) {
+        this.worldUid = worldUid;
+        this.sessions = new ArrayList<>();
+    }
+
+    UUID getWorldUid() {
+        return worldUid;
+    }
+
+    /**
+     * Look the world up again; returns false while it is unloaded
+     */
+    boolean refreshWorld() {
+        world = Bukkit.getWorld(worldUid);
+        return world != null;
+    }
+
+    /**
+     * The world as of the last {@link #refreshWorld()}
+     */
+    World getWorld() {
+        return world;
+    }
+
+    /**
+     * Add a session; returns false if it was already queued
+     */
+    boolean add(MiningSession session) {
+        if (sessions.contains(session)) {
+            return false;
+        }
+        sessions.add(session);
+        return true;
+    }
+
+    void remove(MiningSession session) {
+        int index = sessions.indexOf(session);
+        if (index < 0) {
+            return;
+        }
+        sessions.remove(index);
+        if (index < roundRobinIndex) {
+            roundRobinIndex--;
+        }
+    }
+
+    /**
+     * Drop completed or ended sessions without reordering the queue
+     */
+    void removeFinished(Consumer<MiningSession> onRemoved) {
+        int write = 0;
+        for (int read = 0; read < sessions.size(); read++) {
+            MiningSession session = sessions.get(read);
+            if (session.isRunning()) {
+                sessions.set(write++, session);
+                continue;
+            }
+
+            onRemoved.accept(session);
+            if (read < roundRobinIndex) {
+                roundRobinIndex--;
+            }
+        }
+        while (sessions.size() > write) {
+            sessions.remove(sessions.size() - 1);
+        }
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    boolean isEmpty() {
+        return sessions.isEmpty();
+    }
+
+    MiningSession get(int index) {
+        return sessions.get(index);
+    }
+
+    /**
+     * Sum of the weights of the queued sessions
+     */
+    int getTotalWeight() {
+        int weight = 0;
+        for (int i = 0; i < sessions.size(); i++) {
+            weight += sessions.get(i).getWeight();
+        }
+        return weight;
+    }
+
+    int getRoundRobinIndex() {
+        return roundRobinIndex;
+    }
+
+    void setRoundRobinIndex(int roundRobinIndex) {
+        this.roundRobinIndex = roundRobinIndex;
+    }
+
+    void clear() {
+        sessions.clear();
+        roundRobinIndex = 0;
+    }
+}
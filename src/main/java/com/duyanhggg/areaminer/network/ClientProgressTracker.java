@@ -0,0 +1,122 @@
+package com.duyanhggg.areaminer.network;
+
+import com.duyanhggg.areaminer.network.NetworkHandler.MiningProgressPayload;
+import com.duyanhggg.areaminer.network.NetworkHandler.MiningProgressPayload.MaterialDelta;
+
+import java.util.*;
+
+/**
+ * ClientProgressTracker - Client-side view of the sessions the player is watching
+ * Rebuilds absolute progress from the server's delta updates. Client thread only.
+ */
+public final class ClientProgressTracker {
+    
+    private static final Map<UUID, Progress> SESSIONS = new HashMap<>();
+    
+    private ClientProgressTracker() {
+    }
+    
+    /**
+     * Apply one update from the server
+     */
+    public static void apply(MiningProgressPayload payload) {
+        Progress progress = SESSIONS.get(payload.session());
+        if (payload.keyframe()) {
+            progress = new Progress();
+            SESSIONS.put(payload.session(), progress);
+        } else if (progress == null) {
+            return; // Material ids cannot be resolved without the keyframe
+        }
+        progress.apply(payload);
+    }
+    
+    /**
+     * Get the latest progress of a session, or null if none was received
+     */
+    public static Progress get(UUID session) {
+        return SESSIONS.get(session);
+    }
+    
+    /**
+     * Forget a session, e.g. when the screen showing it is closed
+     */
+    public static void forget(UUID session) {
+        SESSIONS.remove(session);
+    }
+    
+    public static final class Progress {
+        private final List<String> materialNames = new ArrayList<>();
+        private final Map<String, Long> materialCounts = new LinkedHashMap<>();
+        private long blocksMined;
+        private long totalBlocks;
+        private int etaSeconds = MiningProgressPayload.ETA_UNKNOWN;
+        private int state;
+        private double blocksPerSecond;
+        private long lastUpdateMillis;
+        
+        private void apply(MiningProgressPayload payload) {
+            long now = System.currentTimeMillis();
+            if (!payload.keyframe() && lastUpdateMillis != 0L && now > lastUpdateMillis) {
+                // Smooth the rate, since updates arrive at a few per second at most
+                double instant = payload.minedDelta() * 1000.0 / (now - lastUpdateMillis);
+                blocksPerSecond = blocksPerSecond == 0.0 ? instant : blocksPerSecond * 0.7 + instant * 0.3;
+            }
+            lastUpdateMillis = now;
+            
+            blocksMined += payload.minedDelta();
+            if (payload.totalBlocks() != MiningProgressPayload.UNCHANGED) {
+                totalBlocks = payload.totalBlocks();
+            }
+            if (payload.etaSeconds() != MiningProgressPayload.UNCHANGED) {
+                etaSeconds = payload.etaSeconds();
+            }
+            state = payload.state();
+            
+            for (MaterialDelta material : payload.materials()) {
+                if (material.name() != null && material.id() == materialNames.size()) {
+                    materialNames.add(material.name());
+                }
+                if (material.id() < materialNames.size()) {
+                    materialCounts.merge(materialNames.get(material.id()), material.delta(), Long::sum);
+                }
+            }
+        }
+        
+        public long getBlocksMined() {
+            return blocksMined;
+        }
+        
+        public long getTotalBlocks() {
+            return totalBlocks;
+        }
+        
+        /**
+         * Server-estimated seconds left, or {@link MiningProgressPayload#ETA_UNKNOWN}
+         */
+        public int getEtaSeconds() {
+            return etaSeconds;
+        }
+        
+        /**
+         * Session state ordinal, or {@link MiningProgressPayload#STATE_ENDED}
+         */
+        public int getState() {
+            return state;
+        }
+        
+        public boolean isActive() {
+            return state == MiningProgressPayload.STATE_PLANNING || state == MiningProgressPayload.STATE_MINING;
+        }
+        
+        public double getBlocksPerSecond() {
+            return blocksPerSecond;
+        }
+        
+        /**
+         * Mined counts keyed by block id, e.g. "minecraft:stone", in order of first appearance
+         */
+        public Map<String, Long> getMaterialCounts() {
+            return Collections.unmodifiableMap(materialCounts);
+        }
+    }
+}
@@ -1,18 +1,42 @@
 package com.duyanhggg.areaminer.network;
 
 import com.duyanhggg.areaminer.AreaMiner;
-import com.duyanhggg.areaminer.mining.MiningArea;
+import com.duyanhggg.areaminer.gui.MiningScreen;
+import com.duyanhggg.areaminer.mining.BlockCursor;
+import com.duyanhggg.areaminer.mining.MaterialFilter;
 import com.duyanhggg.areaminer.mining.MiningController;
+import com.duyanhggg.areaminer.mining.MiningEstimate;
+import com.duyanhggg.areaminer.renderer.AreaRenderer;
+import com.duyanhggg.areaminer.renderer.RemainingOverlay;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Uuids;
 import net.minecraft.util.math.BlockPos;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
 
 public class NetworkHandler {
     public static final Identifier START_MINING_ID = Identifier.of(AreaMiner.MOD_ID, "start_mining");
@@ -20,6 +44,19 @@ public class NetworkHandler {
     public static final Identifier PAUSE_MINING_ID = Identifier.of(AreaMiner.MOD_ID, "pause_mining");
     public static final Identifier RESUME_MINING_ID = Identifier.of(AreaMiner.MOD_ID, "resume_mining");
     public static final Identifier MINING_PROGRESS_ID = Identifier.of(AreaMiner.MOD_ID, "mining_progress");
+    public static final Identifier WATCH_MINING_ID = Identifier.of(AreaMiner.MOD_ID, "watch_mining");
+    public static final Identifier START_MINING_BATCH_ID = Identifier.of(AreaMiner.MOD_ID, "start_mining_batch");
+    public static final Identifier ESTIMATE_MINING_ID = Identifier.of(AreaMiner.MOD_ID, "estimate_mining");
+    public static final Identifier MINING_ESTIMATE_ID = Identifier.of(AreaMiner.MOD_ID, "mining_estimate");
+    
+    /** Most boxes accepted in one batch request */
+    public static final int MAX_BATCH_BOXES = 256;
+    /** Most blocks one batch may cover across all of its boxes */
+    public static final long MAX_BATCH_VOLUME = MiningController.MAX_SESSION_VOLUME;
+    
+    /** Players with a dry run in flight, and the request to run after it, if one came in meanwhile; main thread only */
+    private static final Set<UUID> RUNNING_ESTIMATES = new HashSet<>();
+    private static final Map<UUID, EstimateMiningPayload> QUEUED_ESTIMATES = new HashMap<>();
     
     public static void registerServerPackets() {
         // Register payload types
@@ -27,34 +64,32 @@ public class NetworkHandler {
         PayloadTypeRegistry.playC2S().register(StopMiningPayload.ID, StopMiningPayload.CODEC);
         PayloadTypeRegistry.playC2S().register(PauseMiningPayload.ID, PauseMiningPayload.CODEC);
         PayloadTypeRegistry.playC2S().register(ResumeMiningPayload.ID, ResumeMiningPayload.CODEC);
+        PayloadTypeRegistry.playC2S().register(WatchMiningPayload.ID, WatchMiningPayload.CODEC);
+        PayloadTypeRegistry.playC2S().register(StartMiningBatchPayload.ID, StartMiningBatchPayload.CODEC);
+        PayloadTypeRegistry.playC2S().register(EstimateMiningPayload.ID, EstimateMiningPayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(MiningProgressPayload.ID, MiningProgressPayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(MiningEstimatePayload.ID, MiningEstimatePayload.CODEC);
         
         // Register server receivers
         ServerPlayNetworking.registerGlobalReceiver(StartMiningPayload.ID, (payload, context) -> {
             ServerPlayerEntity player = context.player();
-            
-            context.server().execute(() -> {
-                // Check permissions
-                if (!player.hasPermissionLevel(2)) {
-                    AreaMiner.LOGGER.warn("Player {} attempted to start mining without permission", player.getName().getString());
-                    return;
-                }
-                
-                MiningArea area = new MiningArea(
-                    payload.minX(), payload.minY(), payload.minZ(),
-                    payload.maxX(), payload.maxY(), payload.maxZ()
-                );
-                
-                MiningController.MiningSession session = MiningController.createSession(player, area, payload.speed());
-                session.start();
-                
-                AreaMiner.LOGGER.info("Player {} started mining area", player.getName().getString());
-            });
+            context.server().execute(() -> startArea(player, payload));
+        });
+        
+        ServerPlayNetworking.registerGlobalReceiver(StartMiningBatchPayload.ID, (payload, context) -> {
+            ServerPlayerEntity player = context.player();
+            context.server().execute(() -> startBatch(player, payload));
+        });
+        
+        ServerPlayNetworking.registerGlobalReceiver(EstimateMiningPayload.ID, (payload, context) -> {
+            ServerPlayerEntity player = context.player();
+            context.server().execute(() -> estimate(context.server(), player, payload));
         });
         
         ServerPlayNetworking.registerGlobalReceiver(StopMiningPayload.ID, (payload, context) -> {
             ServerPlayerEntity player = context.player();
             context.server().execute(() -> {
-                MiningController.stopSession(player.getUuid());
+                MiningController.getInstance().endSession(player.getUuid());
                 AreaMiner.LOGGER.info("Player {} stopped mining", player.getName().getString());
             });
         });
@@ -62,33 +97,275 @@ public class NetworkHandler {
         ServerPlayNetworking.registerGlobalReceiver(PauseMiningPayload.ID, (payload, context) -> {
             ServerPlayerEntity player = context.player();
             context.server().execute(() -> {
-                MiningController.pauseSession(player.getUuid());
+                MiningController.getInstance().pause(player.getUuid());
             });
         });
         
         ServerPlayNetworking.registerGlobalReceiver(ResumeMiningPayload.ID, (payload, context) -> {
             ServerPlayerEntity player = context.player();
             context.server().execute(() -> {
-                MiningController.resumeSession(player.getUuid());
+                MiningController.getInstance().resume(player.getUuid());
+            });
+        });
+        
+        ServerPlayNetworking.registerGlobalReceiver(WatchMiningPayload.ID, (payload, context) -> {
+            ServerPlayerEntity player = context.player();
+            context.server().execute(() -> {
+                // Anyone may watch their own session; watching others is for operators
+                if (!payload.session().equals(player.getUuid()) && !player.hasPermissionLevel(2)) {
+                    return;
+                }
+                ProgressStreamer.getInstance().watch(player, payload.session(), payload.watching());
             });
         });
+        
+        // Progress is pushed from the server tick, coalesced per watching player
+        ServerTickEvents.END_SERVER_TICK.register(server -> ProgressStreamer.getInstance().tick(server));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            ProgressStreamer.getInstance().remove(handler.getPlayer().getUuid());
+            QUEUED_ESTIMATES.remove(handler.getPlayer().getUuid());
+        });
     }
     
-    public static void registerClientPackets() {
-        // Register payload types for client
-        PayloadTypeRegistry.playS2C().register(MiningProgressPayload.ID, MiningProgressPayload.CODEC);
+    /**
+     * Start a single-box job with the default material filter
+     * The speed field is not used; sessions are paced by the controller's tick budget.
+     */
+    private static void startArea(ServerPlayerEntity player, StartMiningPayload payload) {
+        String name = player.getName().getString();
+        if (!player.hasPermissionLevel(2)) {
+            AreaMiner.LOGGER.warn("Player {} attempted to start mining without permission", name);
+            return;
+        }
+        
+        // Sessions are keyed by the same UUID on the mining side
+        Player miner = Bukkit.getPlayer(player.getUuid());
+        if (miner == null) {
+            return;
+        }
+        MiningController controller = MiningController.getInstance();
+        if (controller.hasActiveSession(miner.getUniqueId())) {
+            AreaMiner.LOGGER.warn("Player {} could not start mining; a session is already running", name);
+            return;
+        }
+        
+        // A single area gets the same height, border and volume checks as a one-box batch
+        World world = miner.getWorld();
+        List<BlockCursor> boxes = toCursors(name, world, new StartMiningBatchPayload(List.of(new StartMiningBatchPayload.Box(
+            payload.minX(), payload.minY(), payload.minZ(), payload.maxX(), payload.maxY(), payload.maxZ())), OptionalInt.empty()));
+        if (boxes == null) {
+            return;
+        }
+        
+        BlockCursor area = boxes.get(0);
+        MiningController.MiningSession session = controller.createSession(miner,
+            new Location(world, area.getMinX(), area.getMinY(), area.getMinZ()),
+            new Location(world, area.getMaxX(), area.getMaxY(), area.getMaxZ()));
+        controller.startMiningSession(session, controller.getFilter(0));
+        
+        AreaMiner.LOGGER.info("Player {} started mining area", name);
+    }
+    
+    /**
+     * Validate a batch request and start all of its boxes as a single job
+     * Permission and session checks run once for the whole batch.
+     */
+    private static void startBatch(ServerPlayerEntity player, StartMiningBatchPayload payload) {
+        String name = player.getName().getString();
+        if (!player.hasPermissionLevel(2)) {
+            AreaMiner.LOGGER.warn("Player {} attempted to start mining without permission", name);
+            return;
+        }
+        
+        // Sessions are keyed by the same UUID on the mining side
+        Player miner = Bukkit.getPlayer(player.getUuid());
+        if (miner == null) {
+            return;
+        }
+        World world = miner.getWorld();
+        
+        List<BlockCursor> boxes = toCursors(name, world, payload);
+        MiningController controller = MiningController.getInstance();
+        MaterialFilter filter = toFilter(name, controller, payload);
+        if (boxes == null || filter == null) {
+            return;
+        }
+        
+        if (controller.startBatchSession(miner, world, boxes, filter) == null) {
+            AreaMiner.LOGGER.warn("Player {} could not start a mining batch; a session may already be running", name);
+            return;
+        }
+        AreaMiner.LOGGER.info("Player {} started mining {} boxes", name, boxes.size());
+    }
+    
+    /**
+     * Dry-run a batch and send back what it would mine, without starting it
+     * Runs the same checks as starting the batch. Each player has at most one dry run in flight;
+     * a request arriving meanwhile replaces any queued one and runs when the current one ends.
+     */
+    private static void estimate(MinecraftServer server, ServerPlayerEntity player, EstimateMiningPayload payload) {
+        String name = player.getName().getString();
+        if (!player.hasPermissionLevel(2)) {
+            AreaMiner.LOGGER.warn("Player {} attempted to estimate mining without permission", name);
+            return;
+        }
+        
+        UUID uuid = player.getUuid();
+        if (RUNNING_ESTIMATES.contains(uuid)) {
+            QUEUED_ESTIMATES.put(uuid, payload);
+            return;
+        }
+        Player miner = Bukkit.getPlayer(uuid);
+        if (miner == null) {
+            return;
+        }
+        World world = miner.getWorld();
+        
+        List<BlockCursor> boxes = toCursors(name, world, payload.job());
+        MiningController controller = MiningController.getInstance();
+        MaterialFilter filter = toFilter(name, controller, payload.job());
+        if (boxes == null || filter == null) {
+            return;
+        }
         
-        // Register client receivers
+        RUNNING_ESTIMATES.add(uuid);
+        controller.estimate(miner, world, boxes, filter).whenComplete((estimate, error) -> server.execute(() -> {
+            RUNNING_ESTIMATES.remove(uuid);
+            if (error != null) {
+                AreaMiner.LOGGER.warn("Could not estimate mining batch for {}", name, error);
+            } else if (!player.isDisconnected()) {
+                ServerPlayNetworking.send(player, MiningEstimatePayload.of(payload.requestId(), estimate));
+            }
+            EstimateMiningPayload next = QUEUED_ESTIMATES.remove(uuid);
+            if (next != null && !player.isDisconnected()) {
+                estimate(server, player, next);
+            }
+        }));
+    }
+    
+    /**
+     * Check a batch's boxes against the world height, world border and volume cap; returns null and logs if they fail
+     */
+    private static List<BlockCursor> toCursors(String name, World world, StartMiningBatchPayload payload) {
+        long volume = 0L;
+        WorldBorder border = world.getWorldBorder();
+        List<BlockCursor> boxes = new ArrayList<>(payload.boxes().size());
+        for (StartMiningBatchPayload.Box box : payload.boxes()) {
+            if (box.minY() < world.getMinHeight() || box.maxY() >= world.getMaxHeight()) {
+                AreaMiner.LOGGER.warn("Player {} sent a mining box outside the world height", name);
+                return null;
+            }
+            // Packed positions only hold 26-bit X and Z; the border is normally well inside that
+            if (!BlockCursor.isPackable(box.minX(), box.minZ()) || !BlockCursor.isPackable(box.maxX(), box.maxZ())
+                    || !border.isInside(new Location(world, box.minX() + 0.5, box.minY(), box.minZ() + 0.5))
+                    || !border.isInside(new Location(world, box.maxX() + 0.5, box.maxY(), box.maxZ() + 0.5))) {
+                AreaMiner.LOGGER.warn("Player {} sent a mining box outside the world border", name);
+                return null;
+            }
+            // Spans are taken in long so corners far apart cannot wrap around; each is capped before multiplying
+            long spanX = (long) box.maxX() - box.minX() + 1;
+            long spanY = (long) box.maxY() - box.minY() + 1;
+            long spanZ = (long) box.maxZ() - box.minZ() + 1;
+            if (spanX > MAX_BATCH_VOLUME || spanY > MAX_BATCH_VOLUME || spanZ > MAX_BATCH_VOLUME) {
+                AreaMiner.LOGGER.warn("Player {} sent a mining batch larger than {} blocks", name, MAX_BATCH_VOLUME);
+                return null;
+            }
+            volume += spanX * spanY * spanZ;
+            if (volume > MAX_BATCH_VOLUME) {
+                AreaMiner.LOGGER.warn("Player {} sent a mining batch larger than {} blocks", name, MAX_BATCH_VOLUME);
+                return null;
+            }
+            boxes.add(new BlockCursor(box.minX(), box.minY(), box.minZ(), box.maxX(), box.maxY(), box.maxZ()));
+        }
+        return boxes;
+    }
+    
+    /**
+     * Resolve a batch's material filter; returns null and logs if the id is unknown
+     */
+    private static MaterialFilter toFilter(String name, MiningController controller, StartMiningBatchPayload payload) {
+        MaterialFilter filter = controller.getFilter(payload.filterId().orElse(0));
+        if (filter == null) {
+            AreaMiner.LOGGER.warn("Player {} requested unknown material filter {}", name, payload.filterId().getAsInt());
+        }
+        return filter;
+    }
+    
+    public static void registerClientPackets() {
+        // Register client receivers; payload types are registered on both sides by registerServerPackets
         ClientPlayNetworking.registerGlobalReceiver(MiningProgressPayload.ID, (payload, context) -> {
             context.client().execute(() -> {
-                // Update client-side progress display
-                // This will be handled by the GUI
+                ClientProgressTracker.apply(payload);
+                RemainingOverlay.apply(payload);
+                // The job's boxes stay outlined until it completes or goes away
+                if (payload.state() == MiningProgressPayload.STATE_COMPLETED
+                        || payload.state() == MiningProgressPayload.STATE_ENDED) {
+                    AreaRenderer.removeAreas(payload.session());
+                }
+            });
+        });
+        ClientPlayNetworking.registerGlobalReceiver(MiningEstimatePayload.ID, (payload, context) -> {
+            context.client().execute(() -> {
+                if (context.client().currentScreen instanceof MiningScreen screen) {
+                    screen.onEstimate(payload);
+                }
             });
         });
     }
     
-    public static void sendMiningProgressToClient(ServerPlayerEntity player, float progress) {
-        ServerPlayNetworking.send(player, new MiningProgressPayload(progress));
+    /**
+     * Ask the server to start or stop streaming a session's progress to this client
+     */
+    public static void sendWatchRequest(UUID session, boolean watching) {
+        if (ClientPlayNetworking.canSend(WatchMiningPayload.ID)) {
+            ClientPlayNetworking.send(new WatchMiningPayload(session, watching));
+        }
+    }
+    
+    /**
+     * Ask the server what a batch would mine; the reply carries the same request id
+     * Returns false if the server does not accept dry runs.
+     */
+    public static boolean sendEstimateRequest(int requestId, StartMiningBatchPayload job) {
+        if (!ClientPlayNetworking.canSend(EstimateMiningPayload.ID)) {
+            return false;
+        }
+        ClientPlayNetworking.send(new EstimateMiningPayload(requestId, job));
+        return true;
+    }
+    
+    /**
+     * Ask the server to mine a batch; returns false if the server does not accept batches
+     */
+    public static boolean sendStartBatch(StartMiningBatchPayload job) {
+        if (!ClientPlayNetworking.canSend(StartMiningBatchPayload.ID)) {
+            return false;
+        }
+        ClientPlayNetworking.send(job);
+        return true;
+    }
+    
+    /**
+     * Ask the server to stop this client's mining session; returns false if it cannot be sent
+     */
+    public static boolean sendStop() {
+        if (!ClientPlayNetworking.canSend(StopMiningPayload.ID)) {
+            return false;
+        }
+        ClientPlayNetworking.send(new StopMiningPayload());
+        return true;
+    }
+    
+    /**
+     * Write an int as a zigzag varint, so small negative values take one byte like small positive ones
+     */
+    private static void writeSigned(RegistryByteBuf buf, int value) {
+        buf.writeVarInt((value << 1) ^ (value >> 31));
+    }
+    
+    private static int readSigned(RegistryByteBuf buf) {
+        int encoded = buf.readVarInt();
+        return (encoded >>> 1) ^ -(encoded & 1);
     }
     
     // Payload records
@@ -111,6 +388,96 @@ public class NetworkHandler {
         }
     }
     
+    /**
+     * Many boxes in one request, for stripe or tunnel patterns
+     * The first box's minimum corner is sent in full; every box's minimum corner is sent
+     * relative to it and its size relative to its own minimum, all as (zigzag) varints.
+     */
+    public record StartMiningBatchPayload(List<Box> boxes, OptionalInt filterId) implements CustomPayload {
+        public static final CustomPayload.Id<StartMiningBatchPayload> ID = new CustomPayload.Id<>(START_MINING_BATCH_ID);
+        public static final PacketCodec<RegistryByteBuf, StartMiningBatchPayload> CODEC =
+            PacketCodec.of(StartMiningBatchPayload::write, StartMiningBatchPayload::read);
+        
+        private static final int FLAG_FILTER = 1;
+        
+        public StartMiningBatchPayload {
+            if (boxes.isEmpty() || boxes.size() > MAX_BATCH_BOXES) {
+                throw new IllegalArgumentException("A mining batch needs 1 to " + MAX_BATCH_BOXES + " boxes, got " + boxes.size());
+            }
+            boxes = List.copyOf(boxes);
+        }
+        
+        private void write(RegistryByteBuf buf) {
+            buf.writeByte(filterId.isPresent() ? FLAG_FILTER : 0);
+            if (filterId.isPresent()) {
+                buf.writeVarInt(filterId.getAsInt());
+            }
+            
+            Box origin = boxes.get(0);
+            buf.writeVarInt(boxes.size());
+            writeSigned(buf, origin.minX());
+            writeSigned(buf, origin.minY());
+            writeSigned(buf, origin.minZ());
+            for (Box box : boxes) {
+                writeSigned(buf, box.minX() - origin.minX());
+                writeSigned(buf, box.minY() - origin.minY());
+                writeSigned(buf, box.minZ() - origin.minZ());
+                buf.writeVarInt(box.maxX() - box.minX());
+                buf.writeVarInt(box.maxY() - box.minY());
+                buf.writeVarInt(box.maxZ() - box.minZ());
+            }
+        }
+        
+        private static StartMiningBatchPayload read(RegistryByteBuf buf) {
+            int flags = buf.readUnsignedByte();
+            OptionalInt filterId = (flags & FLAG_FILTER) != 0 ? OptionalInt.of(buf.readVarInt()) : OptionalInt.empty();
+            
+            int count = buf.readVarInt();
+            if (count <= 0 || count > MAX_BATCH_BOXES) {
+                throw new IllegalArgumentException("Invalid mining batch size: " + count);
+            }
+            int originX = readSigned(buf);
+            int originY = readSigned(buf);
+            int originZ = readSigned(buf);
+            List<Box> boxes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int minX = originX + readSigned(buf);
+                int minY = originY + readSigned(buf);
+                int minZ = originZ + readSigned(buf);
+                int sizeX = buf.readVarInt();
+                int sizeY = buf.readVarInt();
+                int sizeZ = buf.readVarInt();
+                if (sizeX < 0 || sizeY < 0 || sizeZ < 0) {
+                    throw new IllegalArgumentException("Invalid mining box size");
+                }
+                boxes.add(new Box(minX, minY, minZ, minX + sizeX, minY + sizeY, minZ + sizeZ));
+            }
+            return new StartMiningBatchPayload(boxes, filterId);
+        }
+        
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+        
+        /**
+         * Inclusive block box; corners are normalized on construction
+         */
+        public record Box(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            public Box {
+                int x = minX;
+                int y = minY;
+                int z = minZ;
+                minX = Math.min(x, maxX);
+                minY = Math.min(y, maxY);
+                minZ = Math.min(z, maxZ);
+                maxX = Math.max(x, maxX);
+                maxY = Math.max(y, maxY);
+                maxZ = Math.max(z, maxZ);
+            }
+        }
+    }
+    
     public record StopMiningPayload() implements CustomPayload {
         public static final CustomPayload.Id<StopMiningPayload> ID = new CustomPayload.Id<>(STOP_MINING_ID);
         public static final PacketCodec<RegistryByteBuf, StopMiningPayload> CODEC = PacketCodec.unit(new StopMiningPayload());
@@ -141,11 +508,29 @@ public class NetworkHandler {
         }
     }
     
-    public record MiningProgressPayload(float progress) implements CustomPayload {
-        public static final CustomPayload.Id<MiningProgressPayload> ID = new CustomPayload.Id<>(MINING_PROGRESS_ID);
-        public static final PacketCodec<RegistryByteBuf, MiningProgressPayload> CODEC = PacketCodec.tuple(
-            PacketCodecs.FLOAT, MiningProgressPayload::progress,
-            MiningProgressPayload::new
+    public record WatchMiningPayload(UUID session, boolean watching) implements CustomPayload {
+        public static final CustomPayload.Id<WatchMiningPayload> ID = new CustomPayload.Id<>(WATCH_MINING_ID);
+        public static final PacketCodec<RegistryByteBuf, WatchMiningPayload> CODEC = PacketCodec.tuple(
+            Uuids.PACKET_CODEC, WatchMiningPayload::session,
+            PacketCodecs.BOOL, WatchMiningPayload::watching,
+            WatchMiningPayload::new
+        );
+        
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+    }
+    
+    /**
+     * Dry run of a batch, answered with a {@link MiningEstimatePayload} carrying the same request id
+     */
+    public record EstimateMiningPayload(int requestId, StartMiningBatchPayload job) implements CustomPayload {
+        public static final CustomPayload.Id<EstimateMiningPayload> ID = new CustomPayload.Id<>(ESTIMATE_MINING_ID);
+        public static final PacketCodec<RegistryByteBuf, EstimateMiningPayload> CODEC = PacketCodec.tuple(
+            PacketCodecs.VAR_INT, EstimateMiningPayload::requestId,
+            StartMiningBatchPayload.CODEC, EstimateMiningPayload::job,
+            EstimateMiningPayload::new
         );
         
         @Override
@@ -153,4 +538,252 @@ public class NetworkHandler {
             return ID;
         }
     }
+    
+    /**
+     * What a batch would mine: target and capped block counts, chunks touched, projected seconds,
+     * and the count of each material, most common first
+     */
+    public record MiningEstimatePayload(int requestId, long targetBlocks, long minedBlocks, int chunks,
+                                        int etaSeconds, List<MaterialCount> materials) implements CustomPayload {
+        public static final CustomPayload.Id<MiningEstimatePayload> ID = new CustomPayload.Id<>(MINING_ESTIMATE_ID);
+        public static final PacketCodec<RegistryByteBuf, MiningEstimatePayload> CODEC =
+            PacketCodec.of(MiningEstimatePayload::write, MiningEstimatePayload::read);
+        
+        private static final int MAX_MATERIALS = 4096;
+        
+        public MiningEstimatePayload {
+            materials = List.copyOf(materials);
+        }
+        
+        /**
+         * Build the reply for a finished server-side estimate
+         */
+        public static MiningEstimatePayload of(int requestId, MiningEstimate estimate) {
+            List<MaterialCount> materials = new ArrayList<>(estimate.getMaterialCounts().size());
+            for (Map.Entry<Material, Long> entry : estimate.getMaterialCounts().entrySet()) {
+                materials.add(new MaterialCount(entry.getKey().name(), entry.getValue()));
+            }
+            int etaSeconds = (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(estimate.getEstimatedSeconds()));
+            return new MiningEstimatePayload(requestId, estimate.getTargetBlocks(), estimate.getMinedBlocks(),
+                estimate.getAffectedChunks(), etaSeconds, materials);
+        }
+        
+        public boolean isCapped() {
+            return minedBlocks < targetBlocks;
+        }
+        
+        private void write(RegistryByteBuf buf) {
+            buf.writeVarInt(requestId);
+            buf.writeVarLong(targetBlocks);
+            buf.writeVarLong(minedBlocks);
+            buf.writeVarInt(chunks);
+            buf.writeVarInt(etaSeconds);
+            buf.writeVarInt(materials.size());
+            for (MaterialCount material : materials) {
+                buf.writeString(material.name());
+                buf.writeVarLong(material.count());
+            }
+        }
+        
+        private static MiningEstimatePayload read(RegistryByteBuf buf) {
+            int requestId = buf.readVarInt();
+            long targetBlocks = buf.readVarLong();
+            long minedBlocks = buf.readVarLong();
+            int chunks = buf.readVarInt();
+            int etaSeconds = buf.readVarInt();
+            int count = buf.readVarInt();
+            if (count < 0 || count > MAX_MATERIALS) {
+                throw new IllegalArgumentException("Too many materials in mining estimate: " + count);
+            }
+            List<MaterialCount> materials = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                materials.add(new MaterialCount(buf.readString(), buf.readVarLong()));
+            }
+            return new MiningEstimatePayload(requestId, targetBlocks, minedBlocks, chunks, etaSeconds, materials);
+        }
+        
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+        
+        /**
+         * Target blocks of one material
+         */
+        public record MaterialCount(String name, long count) {
+        }
+    }
+    
+    /**
+     * Incremental progress of one session
+     * A keyframe carries absolute values and resets the material dictionary; later updates
+     * carry the blocks mined since the previous update, and total and ETA only when they changed.
+     * Materials are named once per stream and referenced by a small id afterwards.
+     */
+    public record MiningProgressPayload(UUID session, boolean keyframe, int state, long minedDelta,
+                                        long totalBlocks, int etaSeconds, List<MaterialDelta> materials,
+                                        boolean sectionsReset, List<SectionMask> sections)
+            implements CustomPayload {
+        public static final CustomPayload.Id<MiningProgressPayload> ID = new CustomPayload.Id<>(MINING_PROGRESS_ID);
+        public static final PacketCodec<RegistryByteBuf, MiningProgressPayload> CODEC =
+            PacketCodec.of(MiningProgressPayload::write, MiningProgressPayload::read);
+        
+        /** Session states, matching the server's session state ordinals */
+        public static final int STATE_PLANNING = 0;
+        public static final int STATE_MINING = 1;
+        public static final int STATE_COMPLETED = 2;
+        /** Sent once when the session no longer exists */
+        public static final int STATE_ENDED = 3;
+        /** Total or ETA did not change since the previous update */
+        public static final int UNCHANGED = -2;
+        public static final int ETA_UNKNOWN = -1;
+        
+        private static final int FLAG_KEYFRAME = 1;
+        private static final int FLAG_TOTAL = 2;
+        private static final int FLAG_ETA = 4;
+        private static final int FLAG_SECTIONS = 8;
+        private static final int FLAG_SECTIONS_RESET = 16;
+        private static final int STATE_SHIFT = 5;
+        private static final int MAX_MATERIALS = 4096;
+        private static final int MAX_SECTIONS = 4096;
+        
+        /**
+         * Progress without remaining-block sections
+         */
+        public MiningProgressPayload(UUID session, boolean keyframe, int state, long minedDelta,
+                                     long totalBlocks, int etaSeconds, List<MaterialDelta> materials) {
+            this(session, keyframe, state, minedDelta, totalBlocks, etaSeconds, materials, false, List.of());
+        }
+        
+        private void write(RegistryByteBuf buf) {
+            buf.writeUuid(session);
+            int flags = state << STATE_SHIFT
+                | (keyframe ? FLAG_KEYFRAME : 0)
+                | (totalBlocks != UNCHANGED ? FLAG_TOTAL : 0)
+                | (etaSeconds != UNCHANGED ? FLAG_ETA : 0)
+                | (!sections.isEmpty() ? FLAG_SECTIONS : 0)
+                | (sectionsReset ? FLAG_SECTIONS_RESET : 0);
+            buf.writeByte(flags);
+            buf.writeVarLong(minedDelta);
+            if (totalBlocks != UNCHANGED) {
+                buf.writeVarLong(totalBlocks);
+            }
+            if (etaSeconds != UNCHANGED) {
+                buf.writeVarInt(etaSeconds + 1); // Unknown ETA encodes as zero
+            }
+            buf.writeVarInt(materials.size());
+            for (MaterialDelta material : materials) {
+                buf.writeVarInt(material.id() << 1 | (material.name() != null ? 1 : 0));
+                if (material.name() != null) {
+                    buf.writeString(material.name());
+                }
+                buf.writeVarLong(material.delta());
+            }
+            if (!sections.isEmpty()) {
+                buf.writeVarInt(sections.size());
+                for (SectionMask section : sections) {
+                    section.write(buf);
+                }
+            }
+        }
+        
+        private static MiningProgressPayload read(RegistryByteBuf buf) {
+            UUID session = buf.readUuid();
+            int flags = buf.readUnsignedByte();
+            long minedDelta = buf.readVarLong();
+            long totalBlocks = (flags & FLAG_TOTAL) != 0 ? buf.readVarLong() : UNCHANGED;
+            int etaSeconds = (flags & FLAG_ETA) != 0 ? buf.readVarInt() - 1 : UNCHANGED;
+            int count = buf.readVarInt();
+            if (count < 0 || count > MAX_MATERIALS) {
+                throw new IllegalArgumentException("Too many materials in progress update: " + count);
+            }
+            List<MaterialDelta> materials = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int header = buf.readVarInt();
+                String name = (header & 1) != 0 ? buf.readString() : null;
+                materials.add(new MaterialDelta(header >>> 1, name, buf.readVarLong()));
+            }
+            List<SectionMask> sections = List.of();
+            if ((flags & FLAG_SECTIONS) != 0) {
+                int sectionCount = buf.readVarInt();
+                if (sectionCount < 0 || sectionCount > MAX_SECTIONS) {
+                    throw new IllegalArgumentException("Too many sections in progress update: " + sectionCount);
+                }
+                sections = new ArrayList<>(sectionCount);
+                for (int i = 0; i < sectionCount; i++) {
+                    sections.add(SectionMask.read(buf));
+                }
+            }
+            return new MiningProgressPayload(session, (flags & FLAG_KEYFRAME) != 0, flags >>> STATE_SHIFT,
+                minedDelta, totalBlocks, etaSeconds, materials, (flags & FLAG_SECTIONS_RESET) != 0, sections);
+        }
+        
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+        
+        /**
+         * Blocks of one material mined since the previous update; the name is only set the first time an id is used
+         */
+        public record MaterialDelta(int id, String name, long delta) {
+        }
+        
+        /**
+         * Remaining targets of one chunk section, one bit per block in YZX order; an empty mask means none are left
+         * On the wire, coordinates are zigzag varints, so sections below zero stay one byte each, and
+         * a presence bitmap says which of the 64 longs are non-zero and only those follow,
+         * so sparse ore masks and finished sections cost a few bytes.
+         */
+        public record SectionMask(int sectionX, int sectionY, int sectionZ, long[] mask) {
+            public static final int LENGTH = 16 * 16 * 16 / 64;
+            
+            public SectionMask {
+                if (mask.length != LENGTH) {
+                    throw new IllegalArgumentException("Section mask must have " + LENGTH + " longs: " + mask.length);
+                }
+            }
+            
+            public boolean isEmpty() {
+                for (long word : mask) {
+                    if (word != 0L) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            
+            private void write(RegistryByteBuf buf) {
+                writeSigned(buf, sectionX);
+                writeSigned(buf, sectionY);
+                writeSigned(buf, sectionZ);
+                long present = 0L;
+                for (int i = 0; i < LENGTH; i++) {
+                    if (mask[i] != 0L) {
+                        present |= 1L << i;
+                    }
+                }
+                buf.writeLong(present);
+                for (int i = 0; i < LENGTH; i++) {
+                    if (mask[i] != 0L) {
+                        buf.writeLong(mask[i]);
+                    }
+                }
+            }
+            
+            private static SectionMask read(RegistryByteBuf buf) {
+                int sectionX = readSigned(buf);
+                int sectionY = readSigned(buf);
+                int sectionZ = readSigned(buf);
+                long present = buf.readLong();
+                long[] mask = new long[LENGTH];
+                for (int i = 0; i < LENGTH; i++) {
+                    if ((present & 1L << i) != 0L) {
+                        mask[i] = buf.readLong();
+                    }
+                }
+                return new SectionMask(sectionX, sectionY, sectionZ, mask);
+            }
+        }
+    }
 }
@@ -0,0 +1,290 @@
+package com.duyanhggg.areaminer.network;
+
+import com.duyanhggg.areaminer.mining.BlockCursor;
+import com.duyanhggg.areaminer.mining.MiningController;
+import com.duyanhggg.areaminer.mining.MiningController.MiningSession;
+import com.duyanhggg.areaminer.mining.MiningPlan;
+import com.duyanhggg.areaminer.network.NetworkHandler.MiningProgressPayload;
+import com.duyanhggg.areaminer.network.NetworkHandler.MiningProgressPayload.MaterialDelta;
+import com.duyanhggg.areaminer.network.NetworkHandler.MiningProgressPayload.SectionMask;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.bukkit.Material;
+
+import java.util.*;
+
+/**
+ * ProgressStreamer - Streams mining progress to the players watching a session
+ * Each viewer keeps the last values it was sent per session, so updates only carry
+ * deltas. A viewer gets at most {@code maxUpdatesPerSecond} packets per second no
+ * matter how many sessions it watches, and a global per-tick cap bounds the total.
+ * Remaining targets go out as per-section bitmasks: the whole plan once, then only the
+ * sections mining has touched since, a bounded number per update.
+ * Server thread only.
+ */
+public class ProgressStreamer {
+    
+    private static final ProgressStreamer INSTANCE = new ProgressStreamer();
+    
+    private final Map<UUID, Viewer> viewers;
+    private int maxUpdatesPerSecond;
+    private int maxPacketsPerTick;
+    private int maxSectionsPerUpdate;
+    private long tickCount;
+    
+    private ProgressStreamer() {
+        this.viewers = new HashMap<>();
+        this.maxUpdatesPerSecond = 4;
+        this.maxPacketsPerTick = 64;
+        this.maxSectionsPerUpdate = 32;
+    }
+    
+    public static ProgressStreamer getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Start or stop streaming a session to a player
+     */
+    public void watch(ServerPlayerEntity player, UUID session, boolean watching) {
+        if (watching) {
+            Viewer viewer = viewers.computeIfAbsent(player.getUuid(), uuid -> new Viewer());
+            if (viewer.find(session) == null) {
+                viewer.streams.add(new Stream(session));
+            }
+            return;
+        }
+        
+        Viewer viewer = viewers.get(player.getUuid());
+        if (viewer != null) {
+            viewer.streams.removeIf(stream -> stream.session.equals(session));
+            if (viewer.streams.isEmpty()) {
+                viewers.remove(player.getUuid());
+            }
+        }
+    }
+    
+    /**
+     * Forget everything streamed to a player, e.g. when they disconnect
+     */
+    public void remove(UUID player) {
+        viewers.remove(player);
+    }
+    
+    public void setMaxUpdatesPerSecond(int maxUpdatesPerSecond) {
+        this.maxUpdatesPerSecond = Math.max(1, Math.min(20, maxUpdatesPerSecond));
+    }
+    
+    public void setMaxPacketsPerTick(int maxPacketsPerTick) {
+        this.maxPacketsPerTick = Math.max(1, maxPacketsPerTick);
+    }
+    
+    public void setMaxSectionsPerUpdate(int maxSectionsPerUpdate) {
+        this.maxSectionsPerUpdate = Math.max(1, maxSectionsPerUpdate);
+    }
+    
+    /**
+     * Send due updates; called at the end of every server tick
+     */
+    public void tick(MinecraftServer server) {
+        tickCount++;
+        if (viewers.isEmpty()) {
+            return;
+        }
+        
+        MiningController controller;
+        try {
+            controller = MiningController.getInstance();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        
+        int interval = Math.max(1, 20 / maxUpdatesPerSecond);
+        int sent = 0;
+        Iterator<Map.Entry<UUID, Viewer>> iterator = viewers.entrySet().iterator();
+        while (iterator.hasNext() && sent < maxPacketsPerTick) {
+            Map.Entry<UUID, Viewer> entry = iterator.next();
+            Viewer viewer = entry.getValue();
+            if (tickCount < viewer.nextSendTick) {
+                continue;
+            }
+            
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(entry.getKey());
+            if (player == null) {
+                iterator.remove();
+                continue;
+            }
+            
+            // Rotate through watched sessions so one busy session cannot starve the others
+            int count = viewer.streams.size();
+            for (int i = 0; i < count; i++) {
+                Stream stream = viewer.streams.get((viewer.rotation + i) % count);
+                MiningProgressPayload payload = stream.update(controller.getSession(stream.session), maxSectionsPerUpdate);
+                if (payload == null) {
+                    continue;
+                }
+                
+                ServerPlayNetworking.send(player, payload);
+                viewer.rotation = (viewer.rotation + i + 1) % count;
+                viewer.nextSendTick = tickCount + interval;
+                sent++;
+                break;
+            }
+            viewer.streams.removeIf(stream -> stream.ended);
+            if (viewer.streams.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    private static final class Viewer {
+        private final List<Stream> streams = new ArrayList<>(1);
+        private int rotation;
+        private long nextSendTick;
+        
+        private Stream find(UUID session) {
+            for (Stream stream : streams) {
+                if (stream.session.equals(session)) {
+                    return stream;
+                }
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Last state sent to one viewer for one session
+     */
+    private static final class Stream {
+        private final UUID session;
+        private final Map<Material, Integer> materialIds = new EnumMap<>(Material.class);
+        private final Map<Material, Long> materialCounts = new EnumMap<>(Material.class);
+        private final Set<Long> pendingSections = new LinkedHashSet<>();
+        private MiningPlan plan;
+        private int planJournalIndex;
+        private int planUnmarked;
+        private boolean sectionsReset;
+        private boolean keyframeSent;
+        private boolean ended;
+        private long blocksMined;
+        private long totalBlocks = MiningProgressPayload.UNCHANGED;
+        private int etaSeconds = MiningProgressPayload.UNCHANGED;
+        private int state = -1;
+        
+        private Stream(UUID session) {
+            this.session = session;
+        }
+        
+        /**
+         * Build the next update, or null if nothing changed since the last one
+         */
+        private MiningProgressPayload update(MiningSession current, int maxSections) {
+            if (current == null) {
+                if (!keyframeSent) {
+                    return null; // Not started yet; keep waiting for it
+                }
+                // The session ended; tell the viewer once, then drop the stream
+                ended = true;
+                return new MiningProgressPayload(session, false, MiningProgressPayload.STATE_ENDED, 0L,
+                    MiningProgressPayload.UNCHANGED, MiningProgressPayload.UNCHANGED, List.of());
+            }
+            
+            boolean keyframe = !keyframeSent;
+            int newState = current.getState().ordinal();
+            long mined = current.getBlocksMined();
+            long total = current.getTotalBlocks();
+            double rate = current.getMetrics().getBlocksPerSecond();
+            int eta = rate > 0.0
+                ? (int) Math.min(Integer.MAX_VALUE - 2, Math.ceil(Math.max(0L, total - mined) / rate))
+                : MiningProgressPayload.ETA_UNKNOWN;
+            
+            List<MaterialDelta> materials = new ArrayList<>();
+            for (Map.Entry<Material, Long> entry : current.getMetrics().getMaterialCounts().entrySet()) {
+                long previous = materialCounts.getOrDefault(entry.getKey(), 0L);
+                if (entry.getValue() == previous) {
+                    continue;
+                }
+                
+                Integer id = materialIds.get(entry.getKey());
+                String name = null;
+                if (id == null) {
+                    // First use of a material sends its name; later updates only the id
+                    id = materialIds.size();
+                    materialIds.put(entry.getKey(), id);
+                    name = entry.getKey().getKey().toString();
+                }
+                materials.add(new MaterialDelta(id, name, entry.getValue() - previous));
+                materialCounts.put(entry.getKey(), entry.getValue());
+            }
+            
+            collectSections(current.getPlan());
+            List<SectionMask> sections = drainSections(maxSections);
+            
+            if (!keyframe && mined == blocksMined && total == totalBlocks && newState == state
+                    && eta == etaSeconds && materials.isEmpty() && sections.isEmpty() && !sectionsReset) {
+                return null;
+            }
+            
+            MiningProgressPayload payload = new MiningProgressPayload(session, keyframe, newState, mined - blocksMined,
+                total == totalBlocks ? MiningProgressPayload.UNCHANGED : total,
+                eta == etaSeconds ? MiningProgressPayload.UNCHANGED : eta,
+                materials, sectionsReset, sections);
+            sectionsReset = false;
+            keyframeSent = true;
+            blocksMined = mined;
+            totalBlocks = total;
+            etaSeconds = eta;
+            state = newState;
+            return payload;
+        }
+        
+        /**
+         * Queue the sections whose remaining targets changed since the last update
+         * A new plan, e.g. for the next box of a batch, replaces the client's sections wholesale.
+         */
+        private void collectSections(MiningPlan current) {
+            if (current == null) {
+                return;
+            }
+            if (current != plan) {
+                plan = current;
+                pendingSections.clear();
+                for (long key : current.getSectionKeys()) {
+                    pendingSections.add(key);
+                }
+                // Masks are read when sent, so everything journaled so far is already covered
+                planJournalIndex = current.getJournalLength();
+                planUnmarked = current.getUnmarkedCount();
+                sectionsReset = true;
+                return;
+            }
+            if (current.getUnmarkedCount() == planUnmarked) {
+                return;
+            }
+            // The last section sent may have changed again since, so start from it
+            int length = current.getJournalLength();
+            for (int i = Math.max(0, planJournalIndex - 1); i < length; i++) {
+                pendingSections.add(current.getJournalEntry(i));
+            }
+            planJournalIndex = length;
+            planUnmarked = current.getUnmarkedCount();
+        }
+        
+        private List<SectionMask> drainSections(int maxSections) {
+            if (pendingSections.isEmpty()) {
+                return List.of();
+            }
+            List<SectionMask> sections = new ArrayList<>(Math.min(maxSections, pendingSections.size()));
+            Iterator<Long> iterator = pendingSections.iterator();
+            while (iterator.hasNext() && sections.size() < maxSections) {
+                long key = iterator.next();
+                iterator.remove();
+                long[] mask = plan.getSectionMask(key);
+                sections.add(new SectionMask(BlockCursor.unpackX(key), BlockCursor.unpackY(key), BlockCursor.unpackZ(key),
+                    mask != null ? mask.clone() : new long[SectionMask.LENGTH]));
+            }
+            return sections;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.duyanhggg.areaminer.renderer;
+
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BuiltBuffer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import org.joml.Matrix4f;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * All areas merged into two retained vertex buffers: one of outlines, one of faces.
+ * A frame costs at most two draw calls however many areas are shown. The buffers hold every
+ * area, not just the visible ones, and are only rebuilt when the areas' geometry, their level
+ * of detail or the batch origin changes; turning the camera never rebuilds them, and the GPU
+ * clips whatever is off screen. Render thread only.
+ */
+final class AreaBatch implements AutoCloseable {
+
+    private final BitSet detailed = new BitSet();
+    private long revision = -1L;
+    private int originX;
+    private int originY;
+    private int originZ;
+
+    private VertexBuffer outlines;
+    private VertexBuffer faces;
+    private boolean hasOutlines;
+    private boolean hasFaces;
+
+    /**
+     * Makes the batch hold exactly the given areas, rebuilding the buffers only if needed.
+     *
+     * @param areas    every area of the renderer, in draw order
+     * @param detail   which of them, by index, get faces as well as an outline
+     * @param revision geometry revision of the renderer's areas; bumped when areas are added or removed
+     * @param originX  batch origin X
+     * @param originY  batch origin Y
+     * @param originZ  batch origin Z
+     * @return true if the buffers were rebuilt
+     */
+    boolean update(Collection<AreaMesh> areas, BitSet detail, long revision, int originX, int originY, int originZ) {
+        if (this.revision == revision && this.originX == originX && this.originY == originY
+                && this.originZ == originZ && detailed.equals(detail)) {
+            return false;
+        }
+        this.revision = revision;
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        detailed.clear();
+        detailed.or(detail);
+
+        if (outlines == null) {
+            outlines = new VertexBuffer(VertexBuffer.Usage.STATIC);
+            faces = new VertexBuffer(VertexBuffer.Usage.STATIC);
+        }
+
+        // Each edge is its own pair of vertices, so outlines are drawn as lines, not a loop
+        BufferBuilder lines = Tessellator.getInstance().begin(VertexFormat.DrawMode.DEBUG_LINES, VertexFormats.POSITION_COLOR);
+        for (AreaMesh mesh : areas) {
+            mesh.addOutline(lines, originX, originY, originZ);
+        }
+        hasOutlines = upload(outlines, lines.endNullable());
+
+        BufferBuilder quads = Tessellator.getInstance().begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_COLOR);
+        int index = 0;
+        for (AreaMesh mesh : areas) {
+            if (detailed.get(index++)) {
+                mesh.addFaces(quads, originX, originY, originZ);
+            }
+        }
+        hasFaces = upload(faces, quads.endNullable());
+
+        VertexBuffer.unbind();
+        return true;
+    }
+
+    /**
+     * Draws the batched faces.
+     * The caller sets the shader and render state once for the pass.
+     *
+     * @param modelView  model-view matrix translated to the batch origin
+     * @param projection projection matrix of the frame
+     * @param shader     position-colour shader bound for the pass
+     * @return the number of draw calls issued
+     */
+    int drawFaces(Matrix4f modelView, Matrix4f projection, ShaderProgram shader) {
+        if (!hasFaces) {
+            return 0;
+        }
+        faces.bind();
+        faces.draw(modelView, projection, shader);
+        return 1;
+    }
+
+    /**
+     * Draws the batched outlines.
+     *
+     * @param modelView  model-view matrix translated to the batch origin
+     * @param projection projection matrix of the frame
+     * @param shader     position-colour shader bound for the pass
+     * @return the number of draw calls issued
+     */
+    int drawOutlines(Matrix4f modelView, Matrix4f projection, ShaderProgram shader) {
+        if (!hasOutlines) {
+            return 0;
+        }
+        outlines.bind();
+        outlines.draw(modelView, projection, shader);
+        return 1;
+    }
+
+    int getOriginX() {
+        return originX;
+    }
+
+    int getOriginY() {
+        return originY;
+    }
+
+    int getOriginZ() {
+        return originZ;
+    }
+
+    /**
+     * Releases the GPU buffers; the next update rebuilds them.
+     */
+    @Override
+    public void close() {
+        if (outlines != null) {
+            outlines.close();
+            faces.close();
+            outlines = null;
+            faces = null;
+        }
+        detailed.clear();
+        hasOutlines = false;
+        hasFaces = false;
+        revision = -1L;
+    }
+
+    private static boolean upload(VertexBuffer buffer, BuiltBuffer built) {
+        if (built == null) {
+            return false;
+        }
+        buffer.bind();
+        buffer.upload(built);
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+package com.duyanhggg.areaminer.renderer;
+
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.util.math.Box;
+
+/**
+ * Geometry for one mining area.
+ * Holds the area's bounds and colour and writes its outline and faces into a shared
+ * {@link AreaBatch}; vertices are emitted relative to the batch origin, so coordinates
+ * stay small and precise far from the world origin. Render thread only.
+ */
+final class AreaMesh {
+
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int maxX;
+    private int maxY;
+    private int maxZ;
+    private int color;
+    private Box box;
+
+    AreaMesh(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int color) {
+        set(minX, minY, minZ, maxX, maxY, maxZ, color);
+    }
+
+    /**
+     * Updates the bounds and colour.
+     *
+     * @param minX  minimum block X, inclusive
+     * @param minY  minimum block Y, inclusive
+     * @param minZ  minimum block Z, inclusive
+     * @param maxX  maximum block X, inclusive
+     * @param maxY  maximum block Y, inclusive
+     * @param maxZ  maximum block Z, inclusive
+     * @param color packed ARGB colour
+     * @return true if anything changed, meaning batched geometry must be rebuilt
+     */
+    boolean set(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int color) {
+        if (box != null && this.minX == minX && this.minY == minY && this.minZ == minZ
+                && this.maxX == maxX && this.maxY == maxY && this.maxZ == maxZ
+                && this.color == color) {
+            return false;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.color = color;
+        // Blocks are inclusive, so the far faces sit one past the maximum coordinate
+        this.box = new Box(minX, minY, minZ, maxX + 1, maxY + 1, maxZ + 1);
+        return true;
+    }
+
+    /**
+     * World-space box enclosing the area, for frustum tests.
+     */
+    Box getBox() {
+        return box;
+    }
+
+    /**
+     * Squared distance from a point to the nearest point of the area, zero if inside.
+     *
+     * @param x point X
+     * @param y point Y
+     * @param z point Z
+     * @return squared distance in blocks
+     */
+    double squaredDistanceTo(double x, double y, double z) {
+        double dx = Math.max(0.0, Math.max(box.minX - x, x - box.maxX));
+        double dy = Math.max(0.0, Math.max(box.minY - y, y - box.maxY));
+        double dz = Math.max(0.0, Math.max(box.minZ - z, z - box.maxZ));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Adds the 12 edges of the area as line pairs, drawn opaque.
+     *
+     * @param buffer  line buffer of the batch
+     * @param originX batch origin X
+     * @param originY batch origin Y
+     * @param originZ batch origin Z
+     */
+    void addOutline(BufferBuilder buffer, int originX, int originY, int originZ) {
+        float x1 = minX - originX;
+        float y1 = minY - originY;
+        float z1 = minZ - originZ;
+        float x2 = maxX + 1 - originX;
+        float y2 = maxY + 1 - originY;
+        float z2 = maxZ + 1 - originZ;
+        int argb = color | 0xFF000000;
+
+        // Bottom face
+        line(buffer, x1, y1, z1, x2, y1, z1, argb);
+        line(buffer, x2, y1, z1, x2, y1, z2, argb);
+        line(buffer, x2, y1, z2, x1, y1, z2, argb);
+        line(buffer, x1, y1, z2, x1, y1, z1, argb);
+
+        // Top face
+        line(buffer, x1, y2, z1, x2, y2, z1, argb);
+        line(buffer, x2, y2, z1, x2, y2, z2, argb);
+        line(buffer, x2, y2, z2, x1, y2, z2, argb);
+        line(buffer, x1, y2, z2, x1, y2, z1, argb);
+
+        // Vertical edges connecting bottom and top
+        line(buffer, x1, y1, z1, x1, y2, z1, argb);
+        line(buffer, x2, y1, z1, x2, y2, z1, argb);
+        line(buffer, x2, y1, z2, x2, y2, z2, argb);
+        line(buffer, x1, y1, z2, x1, y2, z2, argb);
+    }
+
+    /**
+     * Adds the 6 faces of the area as quads, using the colour's alpha.
+     *
+     * @param buffer  quad buffer of the batch
+     * @param originX batch origin X
+     * @param originY batch origin Y
+     * @param originZ batch origin Z
+     */
+    void addFaces(BufferBuilder buffer, int originX, int originY, int originZ) {
+        float x1 = minX - originX;
+        float y1 = minY - originY;
+        float z1 = minZ - originZ;
+        float x2 = maxX + 1 - originX;
+        float y2 = maxY + 1 - originY;
+        float z2 = maxZ + 1 - originZ;
+
+        quad(buffer, x1, y1, z1, x2, y1, z1, x2, y1, z2, x1, y1, z2, color); // Bottom
+        quad(buffer, x1, y2, z1, x1, y2, z2, x2, y2, z2, x2, y2, z1, color); // Top
+        quad(buffer, x1, y1, z1, x1, y2, z1, x2, y2, z1, x2, y1, z1, color); // Z = min
+        quad(buffer, x1, y1, z2, x2, y1, z2, x2, y2, z2, x1, y2, z2, color); // Z = max
+        quad(buffer, x1, y1, z1, x1, y1, z2, x1, y2, z2, x1, y2, z1, color); // X = min
+        quad(buffer, x2, y1, z1, x2, y2, z1, x2, y2, z2, x2, y1, z2, color); // X = max
+    }
+
+    private static void line(BufferBuilder buffer,
+                             float x1, float y1, float z1,
+                             float x2, float y2, float z2,
+                             int argb) {
+        buffer.vertex(x1, y1, z1).color(argb);
+        buffer.vertex(x2, y2, z2).color(argb);
+    }
+
+    private static void quad(BufferBuilder buffer,
+                             float x1, float y1, float z1,
+                             float x2, float y2, float z2,
+                             float x3, float y3, float z3,
+                             float x4, float y4, float z4,
+                             int argb) {
+        buffer.vertex(x1, y1, z1).color(argb);
+        buffer.vertex(x2, y2, z2).color(argb);
+        buffer.vertex(x3, y3, z3).color(argb);
+        buffer.vertex(x4, y4, z4).color(argb);
+    }
+}
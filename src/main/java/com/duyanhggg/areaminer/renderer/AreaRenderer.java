@@ -1,201 +1,291 @@
 package com.duyanhggg.areaminer.renderer;
 
-import com.duyanhggg.areaminer.util.BlockPosition;
-import net.minecraft.client.renderer.BufferBuilder;
-import net.minecraft.client.renderer.Tessellator;
-import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
-import org.lwjgl.opengl.GL11;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.Frustum;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.RenderTickCounter;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import org.joml.Matrix4f;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Renderer for visualizing mining areas in the game world.
- * Provides functionality to draw outlines and highlight selected areas.
+ * Areas beyond the detail distance are drawn as an outline only. All areas are merged into
+ * one {@link AreaBatch} kept in vertex buffers on the GPU, so a frame costs at most two draw
+ * calls, and geometry is only rebuilt when an area or its level of detail changes, never
+ * because the camera turned. The batch is drawn whole: areas outside the view frustum are
+ * clipped by the GPU, and frustum culling only skips the draw when no area is in view.
+ * Render thread only.
  */
 public class AreaRenderer {
 
+    /** Default area colour: translucent orange faces with an opaque outline */
+    public static final int DEFAULT_COLOR = 0x33FF8C00;
+
+    private static final float LINE_WIDTH = 2.0f;
+
+    private static final double DEFAULT_DETAIL_DISTANCE = 96.0;
+    /** Batch origin grid; vertices stay within a few thousand blocks of it, well inside float precision */
+    private static final int ORIGIN_MASK = 1023;
+
+    private static final Map<Object, AreaMesh> AREAS = new LinkedHashMap<>();
+    private static final AreaBatch BATCH = new AreaBatch();
+    private static final BitSet DETAILED = new BitSet();
+    private static final Matrix4f MODEL_VIEW = new Matrix4f();
+
+    private static boolean renderEnabled = true;
+    private static boolean initialized;
+    private static double detailDistanceSq = DEFAULT_DETAIL_DISTANCE * DEFAULT_DETAIL_DISTANCE;
+    /** Bumped whenever an area's geometry changes, so the batch knows to rebuild */
+    private static long revision;
+
+    // Counters of the last frame, for the debug overlay
+    private static int drawnCount;
+    private static int culledCount;
+    private static int outlineOnlyCount;
+    private static int drawCallCount;
+
+    private AreaRenderer() {
+    }
+
     /**
-     * Draws a box outline between two block positions.
-     * Used for visualizing the selected mining area.
-     *
-     * @param startPos the starting block position (one corner of the box)
-     * @param endPos   the ending block position (opposite corner of the box)
-     * @param red      red color component (0.0 - 1.0)
-     * @param green    green color component (0.0 - 1.0)
-     * @param blue     blue color component (0.0 - 1.0)
-     * @param alpha    alpha/transparency component (0.0 - 1.0)
-     * @param lineWidth width of the lines in pixels
+     * Hooks the renderer into the world render pass.
+     * Safe to call more than once.
      */
-    public static void drawBoxOutline(BlockPosition startPos, BlockPosition endPos, 
-                                      float red, float green, float blue, float alpha, float lineWidth) {
-        if (startPos == null || endPos == null) {
+    public static void initialize() {
+        if (initialized) {
             return;
         }
-
-        // Get the minimum and maximum coordinates
-        int minX = Math.min(startPos.getX(), endPos.getX());
-        int minY = Math.min(startPos.getY(), endPos.getY());
-        int minZ = Math.min(startPos.getZ(), endPos.getZ());
-        
-        int maxX = Math.max(startPos.getX(), endPos.getX()) + 1;
-        int maxY = Math.max(startPos.getY(), endPos.getY()) + 1;
-        int maxZ = Math.max(startPos.getZ(), endPos.getZ()) + 1;
-
-        // Enable line rendering
-        GL11.glEnable(GL11.GL_LINE_SMOOTH);
-        GL11.glHint(GL11.GL_LINE_SMOOTH_HINT, GL11.GL_NICEST);
-        GL11.glLineWidth(lineWidth);
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-
-        Tessellator tessellator = Tessellator.getInstance();
-        BufferBuilder bufferBuilder = tessellator.getBuffer();
-
-        // Start drawing lines
-        bufferBuilder.begin(GL11.GL_LINE_LOOP, DefaultVertexFormats.POSITION_COLOR);
-
-        // Draw the 12 edges of the box
-        // Bottom face (Y = minY)
-        drawLine(bufferBuilder, minX, minY, minZ, maxX, minY, minZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, maxX, minY, minZ, maxX, minY, maxZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, maxX, minY, maxZ, minX, minY, maxZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, minX, minY, maxZ, minX, minY, minZ, red, green, blue, alpha);
-
-        // Top face (Y = maxY)
-        drawLine(bufferBuilder, minX, maxY, minZ, maxX, maxY, minZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, maxX, maxY, minZ, maxX, maxY, maxZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, maxX, maxY, maxZ, minX, maxY, maxZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, minX, maxY, maxZ, minX, maxY, minZ, red, green, blue, alpha);
-
-        // Vertical edges connecting bottom and top
-        drawLine(bufferBuilder, minX, minY, minZ, minX, maxY, minZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, maxX, minY, minZ, maxX, maxY, minZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, maxX, minY, maxZ, maxX, maxY, maxZ, red, green, blue, alpha);
-        drawLine(bufferBuilder, minX, minY, maxZ, minX, maxY, maxZ, red, green, blue, alpha);
-
-        tessellator.draw();
-
-        // Restore OpenGL state
-        GL11.glLineWidth(1.0f);
-        GL11.glDisable(GL11.GL_LINE_SMOOTH);
-        GL11.glDisable(GL11.GL_BLEND);
+        initialized = true;
+        WorldRenderEvents.AFTER_TRANSLUCENT.register(AreaRenderer::render);
+        WorldRenderEvents.AFTER_TRANSLUCENT.register(RemainingOverlay::render);
+        HudRenderCallback.EVENT.register(AreaRenderer::renderDebug);
+        // Buffers belong to the GL context, and areas to the world; drop both on leaving
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(() -> {
+            clearAreas();
+            RemainingOverlay.clear();
+        }));
     }
 
     /**
-     * Helper method to draw a single line in the buffer.
+     * Shows an area, or updates it if one is already shown under the same key.
+     * Batched geometry is rebuilt only when the area's bounds or colour actually change.
      *
-     * @param bufferBuilder the buffer builder to add vertices to
-     * @param x1            starting X coordinate
-     * @param y1            starting Y coordinate
-     * @param z1            starting Z coordinate
-     * @param x2            ending X coordinate
-     * @param y2            ending Y coordinate
-     * @param z2            ending Z coordinate
-     * @param red           red color component (0.0 - 1.0)
-     * @param green         green color component (0.0 - 1.0)
-     * @param blue          blue color component (0.0 - 1.0)
-     * @param alpha         alpha/transparency component (0.0 - 1.0)
+     * @param key   identifies the area, e.g. the session UUID
+     * @param minX  minimum block X, inclusive
+     * @param minY  minimum block Y, inclusive
+     * @param minZ  minimum block Z, inclusive
+     * @param maxX  maximum block X, inclusive
+     * @param maxY  maximum block Y, inclusive
+     * @param maxZ  maximum block Z, inclusive
+     * @param color packed ARGB colour; the alpha applies to the faces, the outline is opaque
      */
-    private static void drawLine(BufferBuilder bufferBuilder, 
-                                 double x1, double y1, double z1,
-                                 double x2, double y2, double z2,
-                                 float red, float green, float blue, float alpha) {
-        bufferBuilder.pos(x1, y1, z1).color(red, green, blue, alpha).endVertex();
-        bufferBuilder.pos(x2, y2, z2).color(red, green, blue, alpha).endVertex();
+    public static void setArea(Object key, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int color) {
+        int x1 = Math.min(minX, maxX);
+        int y1 = Math.min(minY, maxY);
+        int z1 = Math.min(minZ, maxZ);
+        int x2 = Math.max(minX, maxX);
+        int y2 = Math.max(minY, maxY);
+        int z2 = Math.max(minZ, maxZ);
+
+        AreaMesh mesh = AREAS.get(key);
+        if (mesh == null) {
+            AREAS.put(key, new AreaMesh(x1, y1, z1, x2, y2, z2, color));
+            revision++;
+        } else if (mesh.set(x1, y1, z1, x2, y2, z2, color)) {
+            revision++;
+        }
     }
 
     /**
-     * Draws a filled box between two block positions.
-     * Used for visualizing the selected mining area with transparency.
+     * Stops showing an area.
      *
-     * @param startPos the starting block position (one corner of the box)
-     * @param endPos   the ending block position (opposite corner of the box)
-     * @param red      red color component (0.0 - 1.0)
-     * @param green    green color component (0.0 - 1.0)
-     * @param blue     blue color component (0.0 - 1.0)
-     * @param alpha    alpha/transparency component (0.0 - 1.0)
+     * @param key the key the area was shown under
      */
-    public static void drawFilledBox(BlockPosition startPos, BlockPosition endPos,
-                                     float red, float green, float blue, float alpha) {
-        if (startPos == null || endPos == null) {
-            return;
+    public static void removeArea(Object key) {
+        if (AREAS.remove(key) != null) {
+            revision++;
         }
+    }
 
-        // Get the minimum and maximum coordinates
-        int minX = Math.min(startPos.getX(), endPos.getX());
-        int minY = Math.min(startPos.getY(), endPos.getY());
-        int minZ = Math.min(startPos.getZ(), endPos.getZ());
-        
-        int maxX = Math.max(startPos.getX(), endPos.getX()) + 1;
-        int maxY = Math.max(startPos.getY(), endPos.getY()) + 1;
-        int maxZ = Math.max(startPos.getZ(), endPos.getZ()) + 1;
+    /**
+     * Stops showing every area shown under an {@link AreaKey} of this owner, e.g. all boxes of one job.
+     *
+     * @param owner the owner the areas were keyed by
+     */
+    public static void removeAreas(Object owner) {
+        if (AREAS.keySet().removeIf(key -> key instanceof AreaKey area && area.owner().equals(owner))) {
+            revision++;
+        }
+    }
 
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    /**
+     * Stops showing every area and frees all buffers.
+     */
+    public static void clearAreas() {
+        AREAS.clear();
+        BATCH.close();
+        revision++;
+    }
 
-        Tessellator tessellator = Tessellator.getInstance();
-        BufferBuilder bufferBuilder = tessellator.getBuffer();
+    public static int getAreaCount() {
+        return AREAS.size();
+    }
 
-        // Draw filled quads
-        bufferBuilder.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+    /**
+     * Toggles area visualization on or off.
+     */
+    public static void toggleRender() {
+        renderEnabled = !renderEnabled;
+    }
 
-        // Bottom face
-        drawQuad(bufferBuilder, minX, minY, minZ, maxX, minY, minZ, maxX, minY, maxZ, minX, minY, maxZ, 
-                 red, green, blue, alpha);
+    public static boolean isRenderEnabled() {
+        return renderEnabled;
+    }
 
-        // Top face
-        drawQuad(bufferBuilder, minX, maxY, minZ, maxX, maxY, minZ, maxX, maxY, maxZ, minX, maxY, maxZ, 
-                 red, green, blue, alpha);
+    public static void setRenderEnabled(boolean enabled) {
+        renderEnabled = enabled;
+    }
 
-        // Front face (Z = minZ)
-        drawQuad(bufferBuilder, minX, minY, minZ, maxX, minY, minZ, maxX, maxY, minZ, minX, maxY, minZ, 
-                 red, green, blue, alpha);
+    /**
+     * Sets how far from the camera areas keep their faces; farther ones show only the outline.
+     *
+     * @param blocks distance in blocks
+     */
+    public static void setDetailDistance(double blocks) {
+        detailDistanceSq = blocks * blocks;
+    }
 
-        // Back face (Z = maxZ)
-        drawQuad(bufferBuilder, minX, minY, maxZ, maxX, minY, maxZ, maxX, maxY, maxZ, minX, maxY, maxZ, 
-                 red, green, blue, alpha);
+    /**
+     * Areas drawn in the last frame; all of them, or none when no area was in view.
+     */
+    public static int getDrawnCount() {
+        return drawnCount;
+    }
 
-        // Left face (X = minX)
-        drawQuad(bufferBuilder, minX, minY, minZ, minX, minY, maxZ, minX, maxY, maxZ, minX, maxY, minZ, 
-                 red, green, blue, alpha);
+    /**
+     * Areas outside the view frustum in the last frame.
+     * They are still drawn with the rest of the batch unless no area at all was in view.
+     */
+    public static int getCulledCount() {
+        return culledCount;
+    }
 
-        // Right face (X = maxX)
-        drawQuad(bufferBuilder, maxX, minY, minZ, maxX, minY, maxZ, maxX, maxY, maxZ, maxX, maxY, minZ, 
-                 red, green, blue, alpha);
+    /**
+     * Areas drawn as an outline only in the last frame because they were far away.
+     */
+    public static int getOutlineOnlyCount() {
+        return outlineOnlyCount;
+    }
 
-        tessellator.draw();
+    /**
+     * Draw calls the drawn areas were batched into in the last frame.
+     */
+    public static int getDrawCallCount() {
+        return drawCallCount;
+    }
 
-        GL11.glDisable(GL11.GL_BLEND);
+    /**
+     * One-line summary of the last frame's counters for the debug overlay.
+     */
+    public static String getDebugText() {
+        return String.format("Areas: %d drawn (%d outline only, %d out of view), batched into %d draw calls",
+            drawnCount, outlineOnlyCount, culledCount, drawCallCount);
     }
 
     /**
-     * Helper method to draw a single quad (4 vertices) in the buffer.
+     * Key for one of several areas shown together, such as the boxes of a mining job.
      *
-     * @param bufferBuilder the buffer builder to add vertices to
-     * @param x1            first vertex X coordinate
-     * @param y1            first vertex Y coordinate
-     * @param z1            first vertex Z coordinate
-     * @param x2            second vertex X coordinate
-     * @param y2            second vertex Y coordinate
-     * @param z2            second vertex Z coordinate
-     * @param x3            third vertex X coordinate
-     * @param y3            third vertex Y coordinate
-     * @param z3            third vertex Z coordinate
-     * @param x4            fourth vertex X coordinate
-     * @param y4            fourth vertex Y coordinate
-     * @param z4            fourth vertex Z coordinate
-     * @param red           red color component (0.0 - 1.0)
-     * @param green         green color component (0.0 - 1.0)
-     * @param blue          blue color component (0.0 - 1.0)
-     * @param alpha         alpha/transparency component (0.0 - 1.0)
+     * @param owner what the areas belong to, e.g. the session UUID
+     * @param index which of the owner's areas this is
      */
-    private static void drawQuad(BufferBuilder bufferBuilder,
-                                 double x1, double y1, double z1,
-                                 double x2, double y2, double z2,
-                                 double x3, double y3, double z3,
-                                 double x4, double y4, double z4,
-                                 float red, float green, float blue, float alpha) {
-        bufferBuilder.pos(x1, y1, z1).color(red, green, blue, alpha).endVertex();
-        bufferBuilder.pos(x2, y2, z2).color(red, green, blue, alpha).endVertex();
-        bufferBuilder.pos(x3, y3, z3).color(red, green, blue, alpha).endVertex();
-        bufferBuilder.pos(x4, y4, z4).color(red, green, blue, alpha).endVertex();
+    public record AreaKey(Object owner, int index) {
+    }
+
+    private static void render(WorldRenderContext context) {
+        drawnCount = 0;
+        culledCount = 0;
+        outlineOnlyCount = 0;
+        drawCallCount = 0;
+        if (!renderEnabled || AREAS.isEmpty()) {
+            return;
+        }
+
+        Vec3d camera = context.camera().getPos();
+        Frustum frustum = context.frustum();
+        DETAILED.clear();
+        int index = 0;
+        for (AreaMesh mesh : AREAS.values()) {
+            // Level of detail covers every area, so the batch does not change as areas enter and leave the view
+            boolean detailed = mesh.squaredDistanceTo(camera.x, camera.y, camera.z) <= detailDistanceSq;
+            DETAILED.set(index++, detailed);
+            if (frustum != null && !frustum.isVisible(mesh.getBox())) {
+                culledCount++;
+            }
+            if (!detailed) {
+                outlineOnlyCount++;
+            }
+        }
+        // Off-screen areas share the batch and are clipped by the GPU; only skip when none is in view
+        if (culledCount == AREAS.size()) {
+            outlineOnlyCount = 0;
+            return;
+        }
+        drawnCount = AREAS.size();
+
+        // Snap the origin to a coarse grid, so walking around does not rebuild the batch
+        int originX = MathHelper.floor(camera.x) & ~ORIGIN_MASK;
+        int originY = MathHelper.floor(camera.y) & ~ORIGIN_MASK;
+        int originZ = MathHelper.floor(camera.z) & ~ORIGIN_MASK;
+        BATCH.update(AREAS.values(), DETAILED, revision, originX, originY, originZ);
+
+        Matrix4f modelView = MODEL_VIEW.set(context.positionMatrix()).translate(
+            (float) (originX - camera.x),
+            (float) (originY - camera.y),
+            (float) (originZ - camera.z));
+        Matrix4f projection = context.projectionMatrix();
+
+        RenderSystem.setShader(GameRenderer::getPositionColorProgram);
+        ShaderProgram shader = RenderSystem.getShader();
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+        RenderSystem.enableDepthTest();
+        RenderSystem.disableCull();
+        RenderSystem.depthMask(false);
+
+        // Faces first, so the outlines draw over them
+        drawCallCount += BATCH.drawFaces(modelView, projection, shader);
+        RenderSystem.lineWidth(LINE_WIDTH);
+        drawCallCount += BATCH.drawOutlines(modelView, projection, shader);
+
+        VertexBuffer.unbind();
+        RenderSystem.lineWidth(1.0f);
+        RenderSystem.depthMask(true);
+        RenderSystem.enableCull();
+        RenderSystem.disableBlend();
+    }
+
+    private static void renderDebug(DrawContext drawContext, RenderTickCounter tickCounter) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (!renderEnabled || !client.getDebugHud().shouldShowDebugHud()) {
+            return;
+        }
+        // Bottom left, clear of the vanilla debug columns
+        int lineHeight = client.textRenderer.fontHeight + 2;
+        int y = drawContext.getScaledWindowHeight() - lineHeight;
+        drawContext.drawTextWithShadow(client.textRenderer, RemainingOverlay.getDebugText(), 2, y, 0xFFE0E0E0);
+        drawContext.drawTextWithShadow(client.textRenderer, getDebugText(), 2, y - lineHeight, 0xFFE0E0E0);
     }
 }
@@ -0,0 +1,142 @@
+package com.duyanhggg.areaminer.renderer;
+
+import net.minecraft.client.render.BufferBuilder;
+
+/**
+ * Greedy mesher for one chunk section of remaining blocks.
+ * Only faces between a marked block and an unmarked neighbour are kept, and each layer's
+ * faces are merged into the largest rectangles that fit, so a solid vein becomes a handful
+ * of quads instead of six per block. Faces on the section border are always emitted, since
+ * neighbouring sections are meshed on their own.
+ */
+final class GreedyMesher {
+
+    /** Block index of (x, y, z) in a section mask, YZX order as sent by the server */
+    private static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    private static boolean isSet(long[] mask, int x, int y, int z) {
+        int index = index(x, y, z);
+        return (mask[index >> 6] & (1L << index)) != 0;
+    }
+
+    private GreedyMesher() {
+    }
+
+    /**
+     * Meshes a section mask into quads with vertices relative to the section's minimum corner.
+     *
+     * @param mask   4096-bit mask of remaining blocks
+     * @param buffer quad buffer to write into
+     * @param color  packed ARGB colour of the faces
+     * @return the number of quads written
+     */
+    static int mesh(long[] mask, BufferBuilder buffer, int color) {
+        // Per layer: faces still to be covered, one bit per cell of a 16x16 slice, one short per row
+        short[] faces = new short[16];
+        int quads = 0;
+        // axis: 0 = X, 1 = Y, 2 = Z; the slice is spanned by axes u and v
+        for (int axis = 0; axis < 3; axis++) {
+            for (int side = -1; side <= 1; side += 2) {
+                for (int layer = 0; layer < 16; layer++) {
+                    if (!collectFaces(mask, axis, side, layer, faces)) {
+                        continue;
+                    }
+                    quads += mergeFaces(faces, axis, side, layer, buffer, color);
+                }
+            }
+        }
+        return quads;
+    }
+
+    /**
+     * Fills one slice with the faces looking towards a side; returns false if it has none.
+     */
+    private static boolean collectFaces(long[] mask, int axis, int side, int layer, short[] faces) {
+        boolean any = false;
+        int neighbour = layer + side;
+        boolean border = neighbour < 0 || neighbour > 15;
+        for (int v = 0; v < 16; v++) {
+            int row = 0;
+            for (int u = 0; u < 16; u++) {
+                if (get(mask, axis, layer, u, v) && (border || !get(mask, axis, neighbour, u, v))) {
+                    row |= 1 << u;
+                }
+            }
+            faces[v] = (short) row;
+            any |= row != 0;
+        }
+        return any;
+    }
+
+    /**
+     * Covers a slice's faces with maximal rectangles, widest first along u, then grown along v.
+     */
+    private static int mergeFaces(short[] faces, int axis, int side, int layer,
+                                  BufferBuilder buffer, int color) {
+        int quads = 0;
+        for (int v = 0; v < 16; v++) {
+            int row = faces[v] & 0xFFFF;
+            while (row != 0) {
+                int u = Integer.numberOfTrailingZeros(row);
+                int width = Integer.numberOfTrailingZeros(~(row >>> u));
+                int span = ((1 << width) - 1) << u;
+
+                int height = 1;
+                while (v + height < 16 && ((faces[v + height] & 0xFFFF) & span) == span) {
+                    faces[v + height] = (short) (faces[v + height] & ~span);
+                    height++;
+                }
+                row &= ~span;
+                faces[v] = (short) row;
+
+                emit(buffer, axis, side, layer, u, v, width, height, color);
+                quads++;
+            }
+        }
+        return quads;
+    }
+
+    private static boolean get(long[] mask, int axis, int layer, int u, int v) {
+        return switch (axis) {
+            case 0 -> isSet(mask, layer, u, v);   // u = Y, v = Z
+            case 1 -> isSet(mask, u, layer, v);   // u = X, v = Z
+            default -> isSet(mask, u, v, layer);  // u = X, v = Y
+        };
+    }
+
+    private static void emit(BufferBuilder buffer, int axis, int side, int layer,
+                             int u, int v, int width, int height, int color) {
+        // A face looking towards +axis sits on the far side of its blocks
+        float d = side > 0 ? layer + 1 : layer;
+        float u1 = u;
+        float u2 = u + width;
+        float v1 = v;
+        float v2 = v + height;
+        switch (axis) {
+            case 0 -> {
+                vertex(buffer, d, u1, v1, color);
+                vertex(buffer, d, u2, v1, color);
+                vertex(buffer, d, u2, v2, color);
+                vertex(buffer, d, u1, v2, color);
+            }
+            case 1 -> {
+                vertex(buffer, u1, d, v1, color);
+                vertex(buffer, u1, d, v2, color);
+                vertex(buffer, u2, d, v2, color);
+                vertex(buffer, u2, d, v1, color);
+            }
+            default -> {
+                vertex(buffer, u1, v1, d, color);
+                vertex(buffer, u1, v2, d, color);
+                vertex(buffer, u2, v2, d, color);
+                vertex(buffer, u2, v1, d, color);
+            }
+        }
+    }
+
+    private static void vertex(BufferBuilder buffer, float x, float y, float z, int color) {
+        buffer.vertex(x, y, z).color(color);
+    }
+}
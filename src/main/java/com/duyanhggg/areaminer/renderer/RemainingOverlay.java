@@ -0,0 +1,264 @@
+package com.duyanhggg.areaminer.renderer;
+
+import com.duyanhggg.areaminer.network.NetworkHandler.MiningProgressPayload;
+import com.duyanhggg.areaminer.network.NetworkHandler.MiningProgressPayload.SectionMask;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BuiltBuffer;
+import net.minecraft.client.render.Frustum;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec3d;
+import org.joml.Matrix4f;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Overlay of the blocks a mining session still has to visit.
+ * The server streams one bitmask per chunk section over the progress channel; each section
+ * is greedy-meshed into a few quads kept in its own vertex buffer, and only sections whose
+ * mask changed are meshed again, a bounded number per frame. Sections outside the view
+ * frustum or beyond the overlay distance are skipped. Render thread only.
+ */
+public final class RemainingOverlay {
+
+    /** Translucent gold, distinct from the area colour */
+    private static final int COLOR = 0x40FFD700;
+    private static final double MAX_DISTANCE = 128.0;
+    /** Sections meshed per frame at most; the rest show their previous mesh until their turn */
+    private static final int MAX_REBUILDS_PER_FRAME = 8;
+
+    private static final Map<UUID, Map<Long, Section>> SESSIONS = new HashMap<>();
+    private static final Matrix4f MODEL_VIEW = new Matrix4f();
+
+    // Counters of the last frame, for the debug overlay
+    private static int drawnCount;
+    private static int quadCount;
+
+    private RemainingOverlay() {
+    }
+
+    /**
+     * Applies the remaining-block sections of one progress update.
+     *
+     * @param payload update received from the server
+     */
+    public static void apply(MiningProgressPayload payload) {
+        if (payload.state() == MiningProgressPayload.STATE_ENDED) {
+            remove(payload.session());
+            return;
+        }
+        if (payload.sectionsReset() || payload.keyframe()) {
+            remove(payload.session());
+        }
+        if (payload.sections().isEmpty()) {
+            return;
+        }
+
+        Map<Long, Section> sections = SESSIONS.computeIfAbsent(payload.session(), session -> new HashMap<>());
+        for (SectionMask update : payload.sections()) {
+            long key = BlockPos.asLong(update.sectionX(), update.sectionY(), update.sectionZ());
+            if (update.isEmpty()) {
+                Section section = sections.remove(key);
+                if (section != null) {
+                    section.close();
+                }
+                continue;
+            }
+            Section section = sections.get(key);
+            if (section == null) {
+                sections.put(key, new Section(update.sectionX(), update.sectionY(), update.sectionZ(), update.mask()));
+            } else {
+                section.setMask(update.mask());
+            }
+        }
+        if (sections.isEmpty()) {
+            SESSIONS.remove(payload.session());
+        }
+    }
+
+    /**
+     * Stops showing a session's remaining blocks and frees their buffers.
+     *
+     * @param session the session UUID
+     */
+    public static void remove(UUID session) {
+        Map<Long, Section> sections = SESSIONS.remove(session);
+        if (sections != null) {
+            sections.values().forEach(Section::close);
+        }
+    }
+
+    /**
+     * Stops showing every session and frees all buffers.
+     */
+    public static void clear() {
+        for (Map<Long, Section> sections : SESSIONS.values()) {
+            sections.values().forEach(Section::close);
+        }
+        SESSIONS.clear();
+    }
+
+    public static boolean isShowing(UUID session) {
+        return SESSIONS.containsKey(session);
+    }
+
+    /**
+     * One-line summary of the last frame's counters for the debug overlay.
+     */
+    public static String getDebugText() {
+        int sections = 0;
+        for (Map<Long, Section> session : SESSIONS.values()) {
+            sections += session.size();
+        }
+        return String.format("Remaining: %d of %d sections drawn, %d quads", drawnCount, sections, quadCount);
+    }
+
+    static void render(WorldRenderContext context) {
+        drawnCount = 0;
+        quadCount = 0;
+        if (!AreaRenderer.isRenderEnabled() || SESSIONS.isEmpty()) {
+            return;
+        }
+
+        Vec3d camera = context.camera().getPos();
+        Frustum frustum = context.frustum();
+        Matrix4f projection = context.projectionMatrix();
+        double maxDistanceSq = MAX_DISTANCE * MAX_DISTANCE;
+        int rebuilds = 0;
+        ShaderProgram shader = null;
+
+        for (Map<Long, Section> sections : SESSIONS.values()) {
+            for (Section section : sections.values()) {
+                if (section.getBox().squaredMagnitude(camera) > maxDistanceSq
+                        || (frustum != null && !frustum.isVisible(section.getBox()))) {
+                    continue;
+                }
+                if (section.isDirty() && rebuilds < MAX_REBUILDS_PER_FRAME) {
+                    section.rebuild();
+                    rebuilds++;
+                }
+                if (section.getQuads() == 0) {
+                    continue;
+                }
+
+                if (shader == null) {
+                    // Set state lazily, once, and only if something is actually drawn
+                    RenderSystem.setShader(GameRenderer::getPositionColorProgram);
+                    shader = RenderSystem.getShader();
+                    RenderSystem.enableBlend();
+                    RenderSystem.defaultBlendFunc();
+                    RenderSystem.enableDepthTest();
+                    RenderSystem.disableCull();
+                    RenderSystem.depthMask(false);
+                }
+                MODEL_VIEW.set(context.positionMatrix()).translate(
+                    (float) ((section.getSectionX() << 4) - camera.x),
+                    (float) ((section.getSectionY() << 4) - camera.y),
+                    (float) ((section.getSectionZ() << 4) - camera.z));
+                section.draw(MODEL_VIEW, projection, shader);
+                drawnCount++;
+                quadCount += section.getQuads();
+            }
+        }
+
+        if (shader != null) {
+            VertexBuffer.unbind();
+            RenderSystem.depthMask(true);
+            RenderSystem.enableCull();
+            RenderSystem.disableBlend();
+        }
+    }
+
+    /**
+     * One chunk section of remaining blocks and its retained mesh.
+     */
+    private static final class Section implements AutoCloseable {
+        private final int sectionX;
+        private final int sectionY;
+        private final int sectionZ;
+        private final Box box;
+        private long[] mask;
+        private boolean dirty;
+        private VertexBuffer buffer;
+        private int quads;
+
+        private Section(int sectionX, int sectionY, int sectionZ, long[] mask) {
+            this.sectionX = sectionX;
+            this.sectionY = sectionY;
+            this.sectionZ = sectionZ;
+            this.box = new Box(sectionX << 4, sectionY << 4, sectionZ << 4,
+                (sectionX << 4) + 16, (sectionY << 4) + 16, (sectionZ << 4) + 16);
+            this.mask = mask;
+            this.dirty = true;
+        }
+
+        private void setMask(long[] mask) {
+            this.mask = mask;
+            this.dirty = true;
+        }
+
+        private void rebuild() {
+            BufferBuilder builder = Tessellator.getInstance().begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_COLOR);
+            quads = GreedyMesher.mesh(mask, builder, COLOR);
+            BuiltBuffer built = builder.endNullable();
+            dirty = false;
+            if (built == null) {
+                return;
+            }
+            if (buffer == null) {
+                buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+            }
+            buffer.bind();
+            buffer.upload(built);
+            VertexBuffer.unbind();
+        }
+
+        private void draw(Matrix4f modelView, Matrix4f projection, ShaderProgram shader) {
+            buffer.bind();
+            buffer.draw(modelView, projection, shader);
+        }
+
+        private boolean isDirty() {
+            return dirty;
+        }
+
+        private int getQuads() {
+            return quads;
+        }
+
+        private Box getBox() {
+            return box;
+        }
+
+        private int getSectionX() {
+            return sectionX;
+        }
+
+        private int getSectionY() {
+            return sectionY;
+        }
+
+        private int getSectionZ() {
+            return sectionZ;
+        }
+
+        @Override
+        public void close() {
+            if (buffer != null) {
+                buffer.close();
+                buffer = null;
+            }
+            quads = 0;
+        }
+    }
+}
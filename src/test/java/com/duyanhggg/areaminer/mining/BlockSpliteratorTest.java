@@ -0,0 +1,151 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockSpliteratorTest {
+
+    // Aligned, unaligned, negative, single-block and one-section-thick boxes
+    private static final List<BlockBox> BOXES = List.of(
+        BlockBox.of(0, 0, 0, 15, 15, 15),
+        BlockBox.of(-20, -70, 5, 37, 10, 40),
+        BlockBox.of(3, 64, -3, 3, 64, -3),
+        BlockBox.of(-1, 0, -1, 0, 31, 0),
+        BlockBox.of(100, -64, 200, 180, -60, 201)
+    );
+
+    private static long[] cursorOrder(BlockBox box) {
+        BlockCursor cursor = new BlockCursor(box.minX(), box.minY(), box.minZ(), box.maxX(), box.maxY(), box.maxZ());
+        long[] order = new long[(int) box.volume()];
+        int i = 0;
+        while (cursor.hasNext()) {
+            order[i++] = cursor.next();
+        }
+        assertEquals(order.length, i);
+        return order;
+    }
+
+    @Test
+    void tryAdvanceMatchesCursor() {
+        for (BlockBox box : BOXES) {
+            BlockSpliterator spliterator = new BlockSpliterator(box);
+            List<Long> walked = new ArrayList<>();
+            while (spliterator.tryAdvance((long packed) -> walked.add(packed))) {
+            }
+            assertArrayEquals(cursorOrder(box), walked.stream().mapToLong(Long::longValue).toArray(), box.toString());
+        }
+    }
+
+    @Test
+    void forEachRemainingMatchesCursorFromAnyStart() {
+        for (BlockBox box : BOXES) {
+            long[] expected = cursorOrder(box);
+            // Start from the beginning, mid-section and at a section boundary
+            for (int start : new int[] {0, 1, 7, 4096}) {
+                int skip = Math.min(start, expected.length);
+                BlockSpliterator spliterator = new BlockSpliterator(box);
+                List<Long> walked = new ArrayList<>();
+                for (int i = 0; i < skip; i++) {
+                    assertTrue(spliterator.tryAdvance((long packed) -> walked.add(packed)));
+                }
+                spliterator.forEachRemaining((long packed) -> walked.add(packed));
+                assertArrayEquals(expected, walked.stream().mapToLong(Long::longValue).toArray(), box + " skip " + skip);
+            }
+        }
+    }
+
+    @Test
+    void visitMatchesCursorAndResumesAfterEarlyExit() {
+        for (BlockBox box : BOXES) {
+            long[] expected = cursorOrder(box);
+            int stopAt = expected.length / 3;
+            BlockSpliterator spliterator = new BlockSpliterator(box);
+            List<Long> walked = new ArrayList<>();
+
+            boolean finished = spliterator.visit((x, y, z) -> {
+                walked.add(BlockCursor.pack(x, y, z));
+                return walked.size() <= stopAt;
+            });
+            assertFalse(finished, box.toString());
+            assertEquals(stopAt + 1, walked.size());
+
+            // The block the visitor stopped on counts as visited
+            assertTrue(spliterator.visit((x, y, z) -> walked.add(BlockCursor.pack(x, y, z))));
+            assertArrayEquals(expected, walked.stream().mapToLong(Long::longValue).toArray(), box.toString());
+        }
+    }
+
+    @Test
+    void splitPrefixesConcatenateToCursorOrder() {
+        for (BlockBox box : BOXES) {
+            List<Long> walked = new ArrayList<>();
+            drainSplitting(new BlockSpliterator(box), walked);
+            assertArrayEquals(cursorOrder(box), walked.stream().mapToLong(Long::longValue).toArray(), box.toString());
+        }
+    }
+
+    private static void drainSplitting(Spliterator.OfLong spliterator, List<Long> walked) {
+        Spliterator.OfLong prefix = spliterator.trySplit();
+        if (prefix != null) {
+            drainSplitting(prefix, walked);
+            drainSplitting(spliterator, walked);
+        } else {
+            spliterator.forEachRemaining((long packed) -> walked.add(packed));
+        }
+    }
+
+    @Test
+    void splitIsDeclinedInsideAPartlyVisitedSection() {
+        BlockSpliterator spliterator = new BlockSpliterator(BlockBox.of(0, 0, 0, 63, 15, 15));
+        assertTrue(spliterator.tryAdvance((long packed) -> { }));
+        assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    void parallelStreamKeepsCursorOrder() {
+        for (BlockBox box : BOXES) {
+            long[] walked = StreamSupport.longStream(new BlockSpliterator(box), true).toArray();
+            assertArrayEquals(cursorOrder(box), walked, box.toString());
+        }
+    }
+
+    @Test
+    void parallelEarlyExitFindsTheFirstMatchInCursorOrder() {
+        BlockBox box = BlockBox.of(-20, -70, 5, 37, 10, 40);
+        long[] expected = cursorOrder(box);
+        long target = expected[expected.length * 2 / 3];
+
+        long[] prefix = StreamSupport.longStream(new BlockSpliterator(box), true)
+            .takeWhile(packed -> packed != target)
+            .toArray();
+        assertArrayEquals(Arrays.copyOf(expected, expected.length * 2 / 3), prefix);
+
+        long first = StreamSupport.longStream(new BlockSpliterator(box), true)
+            .filter(packed -> BlockCursor.unpackY(packed) == 0)
+            .findFirst()
+            .orElseThrow();
+        long expectedFirst = Arrays.stream(expected).filter(packed -> BlockCursor.unpackY(packed) == 0).findFirst().orElseThrow();
+        assertEquals(expectedFirst, first);
+    }
+
+    @Test
+    void estimateSizeCoversWhatIsLeft() {
+        for (BlockBox box : BOXES) {
+            BlockSpliterator spliterator = new BlockSpliterator(box);
+            assertEquals(box.volume(), spliterator.estimateSize());
+            spliterator.forEachRemaining((long packed) -> { });
+            assertEquals(0L, spliterator.estimateSize());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.duyanhggg.areaminer.mining;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    private final TimerWheel<String> wheel = new TimerWheel<>();
+    private final List<String> fired = new ArrayList<>();
+
+    private TimerWheel.Timer<String> timer(String name, long deadline) {
+        TimerWheel.Timer<String> timer = new TimerWheel.Timer<>(name, 0);
+        wheel.schedule(timer, deadline);
+        return timer;
+    }
+
+    private void record(TimerWheel.Timer<String> timer) {
+        assertEquals(timer.getDeadline(), wheel.getTick(), timer.getOwner() + " fired late or early");
+        fired.add(timer.getOwner());
+    }
+
+    @Test
+    void firesOnDeadlineAcrossLevelBoundaries() {
+        // Either side of every level boundary: 64, 64^2 and 64^3 ticks
+        long[] deadlines = {1, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262143, 262144, 262145, 300000};
+        for (long deadline : deadlines) {
+            timer("t" + deadline, deadline);
+        }
+
+        for (long tick = 1; tick <= 300000; tick++) {
+            wheel.advance(tick, this::record);
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (long deadline : deadlines) {
+            expected.add("t" + deadline);
+        }
+        assertEquals(expected, fired);
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void firesOnDeadlineWhenAdvancedInOneJump() {
+        wheel.advance(4000, this::record);
+        timer("a", 4100);
+        timer("b", 8191);
+        timer("c", 8192);
+        timer("d", 270000);
+
+        // Deadlines cascade down on the way; each callback still sees its own tick
+        wheel.advance(300000, this::record);
+
+        assertEquals(List.of("a", "b", "c", "d"), fired);
+        assertEquals(300000, wheel.getTick());
+    }
+
+    @Test
+    void holdsDeadlinesBeyondTheWheelRange() {
+        long far = (1L << 24) + 5;
+        timer("far", far);
+
+        wheel.advance(far - 1, this::record);
+        assertTrue(fired.isEmpty());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(far, this::record);
+        assertEquals(List.of("far"), fired);
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextAdvance() {
+        wheel.advance(100, this::record);
+        TimerWheel.Timer<String> late = new TimerWheel.Timer<>("late", 0);
+        wheel.schedule(late, 50);
+
+        wheel.advance(100, this::record);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(101, timer -> fired.add(timer.getOwner() + "@" + wheel.getTick()));
+        assertEquals(List.of("late@101"), fired);
+    }
+
+    @Test
+    void cancelStopsATimer() {
+        TimerWheel.Timer<String> kept = timer("kept", 70);
+        TimerWheel.Timer<String> cancelled = timer("cancelled", 70);
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+
+        assertFalse(cancelled.isScheduled());
+        assertTrue(kept.isScheduled());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(200, this::record);
+        assertEquals(List.of("kept"), fired);
+    }
+
+    @Test
+    void callbackMayCancelATimerDueTheSameTick() {
+        TimerWheel.Timer<String> first = timer("first", 10);
+        TimerWheel.Timer<String> second = timer("second", 10);
+
+        wheel.advance(10, timer -> {
+            fired.add(timer.getOwner());
+            wheel.cancel(timer == first ? second : first);
+        });
+
+        assertEquals(1, fired.size());
+        assertTrue(wheel.isEmpty());
+        assertFalse(first.isScheduled());
+        assertFalse(second.isScheduled());
+    }
+
+    @Test
+    void callbackMayCancelATimerOnALaterTick() {
+        TimerWheel.Timer<String> later = timer("later", 5000);
+        timer("canceller", 20);
+
+        wheel.advance(10000, timer -> {
+            fired.add(timer.getOwner());
+            wheel.cancel(later);
+        });
+
+        assertEquals(List.of("canceller"), fired);
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void callbackMayRearmItsOwnTimer() {
+        TimerWheel.Timer<String> repeating = timer("repeating", 60);
+        List<Long> ticks = new ArrayList<>();
+
+        wheel.advance(1000, timer -> {
+            assertFalse(timer.isScheduled());
+            ticks.add(wheel.getTick());
+            if (ticks.size() < 3) {
+                // Crosses into level 1 from inside the callback
+                wheel.schedule(timer, wheel.getTick() + 70);
+            }
+        });
+
+        assertEquals(List.of(60L, 130L, 200L), ticks);
+        assertFalse(repeating.isScheduled());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void callbackRearmingForNowFiresNextTick() {
+        timer("again", 30);
+        List<Long> ticks = new ArrayList<>();
+
+        wheel.advance(40, timer -> {
+            ticks.add(wheel.getTick());
+            if (ticks.size() < 2) {
+                wheel.schedule(timer, wheel.getTick());
+            }
+        });
+
+        assertEquals(List.of(30L, 31L), ticks);
+    }
+
+    @Test
+    void scheduleRearmsAScheduledTimer() {
+        TimerWheel.Timer<String> moved = timer("moved", 5000);
+        wheel.schedule(moved, 90);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(6000, this::record);
+        assertEquals(List.of("moved"), fired);
+    }
+
+    @Test
+    void clearDropsEveryTimer() {
+        TimerWheel.Timer<String> near = timer("near", 3);
+        TimerWheel.Timer<String> far = timer("far", 100000);
+        wheel.clear();
+
+        assertTrue(wheel.isEmpty());
+        assertFalse(near.isScheduled());
+        assertFalse(far.isScheduled());
+        wheel.advance(200000, this::record);
+        assertTrue(fired.isEmpty());
+    }
+}
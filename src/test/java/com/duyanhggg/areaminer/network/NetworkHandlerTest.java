@@ -0,0 +1,162 @@
+package com.duyanhggg.areaminer.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.registry.DynamicRegistryManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetworkHandlerTest {
+
+    private static final UUID SESSION = UUID.fromString("6f1c2a1e-3b4d-4e5f-8a9b-0c1d2e3f4a5b");
+
+    private static RegistryByteBuf buffer() {
+        return new RegistryByteBuf(Unpooled.buffer(), DynamicRegistryManager.EMPTY);
+    }
+
+    private static NetworkHandler.MiningProgressPayload roundTrip(NetworkHandler.MiningProgressPayload payload) {
+        RegistryByteBuf buf = buffer();
+        NetworkHandler.MiningProgressPayload.CODEC.encode(buf, payload);
+        NetworkHandler.MiningProgressPayload read = NetworkHandler.MiningProgressPayload.CODEC.decode(buf);
+        assertEquals(0, buf.readableBytes(), "trailing bytes");
+        return read;
+    }
+
+    private static int encodedSize(NetworkHandler.MiningProgressPayload payload) {
+        RegistryByteBuf buf = buffer();
+        NetworkHandler.MiningProgressPayload.CODEC.encode(buf, payload);
+        return buf.readableBytes();
+    }
+
+    private static NetworkHandler.MiningProgressPayload withSections(NetworkHandler.MiningProgressPayload.SectionMask... sections) {
+        return new NetworkHandler.MiningProgressPayload(SESSION, false, NetworkHandler.MiningProgressPayload.STATE_MINING,
+            0L, NetworkHandler.MiningProgressPayload.UNCHANGED, NetworkHandler.MiningProgressPayload.UNCHANGED,
+            List.of(), false, List.of(sections));
+    }
+
+    private static long[] mask(int... words) {
+        long[] mask = new long[NetworkHandler.MiningProgressPayload.SectionMask.LENGTH];
+        for (int word : words) {
+            mask[word] = 0x8000_0000_0000_0001L ^ ((long) word << 17);
+        }
+        return mask;
+    }
+
+    @Test
+    void keyframeRoundTrips() {
+        NetworkHandler.MiningProgressPayload payload = new NetworkHandler.MiningProgressPayload(
+            SESSION, true, NetworkHandler.MiningProgressPayload.STATE_MINING, 1234L, 5_000_000L, 97,
+            List.of(
+                new NetworkHandler.MiningProgressPayload.MaterialDelta(0, "DIAMOND_ORE", 7L),
+                new NetworkHandler.MiningProgressPayload.MaterialDelta(1, null, 1L << 40)));
+
+        NetworkHandler.MiningProgressPayload read = roundTrip(payload);
+
+        assertEquals(SESSION, read.session());
+        assertTrue(read.keyframe());
+        assertEquals(NetworkHandler.MiningProgressPayload.STATE_MINING, read.state());
+        assertEquals(1234L, read.minedDelta());
+        assertEquals(5_000_000L, read.totalBlocks());
+        assertEquals(97, read.etaSeconds());
+        assertEquals(payload.materials(), read.materials());
+    }
+
+    @Test
+    void deltaKeepsUnchangedAndUnknownFields() {
+        NetworkHandler.MiningProgressPayload unchanged = roundTrip(new NetworkHandler.MiningProgressPayload(
+            SESSION, false, NetworkHandler.MiningProgressPayload.STATE_COMPLETED, 0L,
+            NetworkHandler.MiningProgressPayload.UNCHANGED, NetworkHandler.MiningProgressPayload.UNCHANGED, List.of()));
+        assertFalse(unchanged.keyframe());
+        assertEquals(NetworkHandler.MiningProgressPayload.STATE_COMPLETED, unchanged.state());
+        assertEquals(NetworkHandler.MiningProgressPayload.UNCHANGED, unchanged.totalBlocks());
+        assertEquals(NetworkHandler.MiningProgressPayload.UNCHANGED, unchanged.etaSeconds());
+        assertTrue(unchanged.materials().isEmpty());
+
+        NetworkHandler.MiningProgressPayload unknown = roundTrip(new NetworkHandler.MiningProgressPayload(
+            SESSION, false, NetworkHandler.MiningProgressPayload.STATE_ENDED, 3L, 0L,
+            NetworkHandler.MiningProgressPayload.ETA_UNKNOWN, List.of()));
+        assertEquals(NetworkHandler.MiningProgressPayload.STATE_ENDED, unknown.state());
+        assertEquals(0L, unknown.totalBlocks());
+        assertEquals(NetworkHandler.MiningProgressPayload.ETA_UNKNOWN, unknown.etaSeconds());
+
+        // Materials named in an earlier update come back by id alone
+        NetworkHandler.MiningProgressPayload.MaterialDelta known = roundTrip(new NetworkHandler.MiningProgressPayload(
+            SESSION, false, NetworkHandler.MiningProgressPayload.STATE_MINING, 2L, 1L, 1,
+            List.of(new NetworkHandler.MiningProgressPayload.MaterialDelta(9, null, 2L)))).materials().get(0);
+        assertEquals(9, known.id());
+        assertNull(known.name());
+        assertEquals(2L, known.delta());
+    }
+
+    @Test
+    void sparseMasksRoundTripThroughThePresenceBitmap() {
+        NetworkHandler.MiningProgressPayload payload = new NetworkHandler.MiningProgressPayload(
+            SESSION, true, NetworkHandler.MiningProgressPayload.STATE_MINING, 0L, 10L, 1, List.of(), true, List.of(
+                new NetworkHandler.MiningProgressPayload.SectionMask(0, 0, 0, mask()),
+                new NetworkHandler.MiningProgressPayload.SectionMask(-3, -4, 12, mask(63)),
+                new NetworkHandler.MiningProgressPayload.SectionMask(1_875_000, 19, -1_875_000, mask(0, 31, 32)),
+                new NetworkHandler.MiningProgressPayload.SectionMask(7, -1, 9, mask(IntStream.range(0, 64).toArray()))));
+
+        NetworkHandler.MiningProgressPayload read = roundTrip(payload);
+
+        assertTrue(read.sectionsReset());
+        assertEquals(payload.sections().size(), read.sections().size());
+        for (int i = 0; i < payload.sections().size(); i++) {
+            NetworkHandler.MiningProgressPayload.SectionMask sent = payload.sections().get(i);
+            NetworkHandler.MiningProgressPayload.SectionMask received = read.sections().get(i);
+            assertEquals(sent.sectionX(), received.sectionX());
+            assertEquals(sent.sectionY(), received.sectionY());
+            assertEquals(sent.sectionZ(), received.sectionZ());
+            assertArrayEquals(sent.mask(), received.mask(), "section " + i);
+        }
+        assertTrue(read.sections().get(0).isEmpty());
+        assertFalse(read.sections().get(1).isEmpty());
+    }
+
+    @Test
+    void onlyNonZeroWordsAreSent() {
+        int header = encodedSize(withSections());
+        int empty = encodedSize(withSections(new NetworkHandler.MiningProgressPayload.SectionMask(1, 2, 3, mask())));
+        int sparse = encodedSize(withSections(new NetworkHandler.MiningProgressPayload.SectionMask(1, 2, 3, mask(0, 40))));
+        int full = encodedSize(withSections(new NetworkHandler.MiningProgressPayload.SectionMask(1, 2, 3,
+            mask(IntStream.range(0, 64).toArray()))));
+
+        // The section count, three one-byte coordinates and the eight-byte bitmap, then eight bytes per non-zero word
+        assertEquals(header + 1 + 3 + 8, empty);
+        assertEquals(empty + 2 * 8, sparse);
+        assertEquals(empty + 64 * 8, full);
+
+        // Coordinates are zigzagged, so sections below zero cost no more than those above it
+        int negative = encodedSize(withSections(new NetworkHandler.MiningProgressPayload.SectionMask(-1, -4, -60, mask())));
+        assertEquals(empty, negative);
+    }
+
+    @Test
+    void batchRoundTrips() {
+        List<NetworkHandler.StartMiningBatchPayload.Box> boxes = List.of(
+            new NetworkHandler.StartMiningBatchPayload.Box(-100, -64, 30, -90, 10, 45),
+            new NetworkHandler.StartMiningBatchPayload.Box(-130, 0, -20, -130, 0, -20),
+            new NetworkHandler.StartMiningBatchPayload.Box(2000, 100, 2000, 2015, 120, 2003));
+
+        for (OptionalInt filterId : List.of(OptionalInt.empty(), OptionalInt.of(3))) {
+            NetworkHandler.StartMiningBatchPayload payload = new NetworkHandler.StartMiningBatchPayload(boxes, filterId);
+            RegistryByteBuf buf = buffer();
+            NetworkHandler.StartMiningBatchPayload.CODEC.encode(buf, payload);
+            NetworkHandler.StartMiningBatchPayload read = NetworkHandler.StartMiningBatchPayload.CODEC.decode(buf);
+
+            assertEquals(0, buf.readableBytes(), "trailing bytes");
+            assertEquals(payload, read);
+        }
+    }
+}
+